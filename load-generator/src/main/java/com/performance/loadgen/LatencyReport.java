@@ -0,0 +1,109 @@
+package com.performance.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-request latency histograms (microseconds) plus error and byte counters.
+ * Latency is measured from the intended start time, so queueing caused by a slow
+ * server is charged to the server instead of being hidden (coordinated omission).
+ */
+public final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public LatencyReport(Iterable<RequestTemplate> requests) {
+        for (RequestTemplate request : requests) {
+            entries.put(request.name(), new Entry());
+        }
+    }
+
+    public void recordSuccess(String name, long latencyNanos, int status, long bytes) {
+        Entry entry = entries.get(name);
+        entry.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        entry.bytes.add(bytes);
+        if (status >= 400) {
+            entry.errors.increment();
+        }
+    }
+
+    public void recordFailure(String name, long latencyNanos) {
+        Entry entry = entries.get(name);
+        entry.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        entry.errors.increment();
+    }
+
+    public void write(Path directory, double targetRate, long durationSeconds, String threadMode) throws IOException {
+        Files.createDirectories(directory);
+        Path summary = directory.resolve("summary.txt");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(summary), true, "UTF-8")) {
+            print(out, targetRate, durationSeconds, threadMode);
+        }
+        print(System.out, targetRate, durationSeconds, threadMode);
+
+        // Full distributions in HdrHistogram's .hgrm format, loadable in the HdrHistogram plotter
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().replaceAll("[^A-Za-z0-9._-]+", "_") + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, "UTF-8")) {
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("Report written to " + directory.toAbsolutePath());
+    }
+
+    private void print(PrintStream out, double targetRate, long durationSeconds, String threadMode) {
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+
+        out.printf(Locale.ROOT, "Open-model run: target %.1f req/s for %ds on %s%n%n", targetRate, durationSeconds, threadMode);
+        out.printf(Locale.ROOT, "%-45s %7s %6s %9s %9s %9s %9s %9s %9s %12s%n",
+                "request", "count", "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "avg bytes");
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            long errors = entry.getValue().errors.sum();
+            total.add(histogram);
+            totalErrors += errors;
+            out.printf(Locale.ROOT, "%-45s %7d %6d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %12d%n",
+                    entry.getKey(), count, errors,
+                    histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    entry.getValue().bytes.sum() / count);
+        }
+        long count = total.getTotalCount();
+        out.printf(Locale.ROOT, "%nTOTAL %d requests, %d errors (%.2f%%), achieved %.1f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                count, totalErrors, count == 0 ? 0.0 : 100.0 * totalErrors / count,
+                durationSeconds == 0 ? 0.0 : (double) count / durationSeconds,
+                total.getValueAtPercentile(50) / 1000.0,
+                total.getValueAtPercentile(99) / 1000.0,
+                total.getMaxValue() / 1000.0);
+    }
+
+    private static final class Entry {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+}
@@ -0,0 +1,241 @@
+package com.performance.loadgen;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the Postman collection in open-model mode: requests are started on a fixed
+ * schedule derived from the target arrival rate, whether or not earlier requests have
+ * finished, so a slow server shows up as latency instead of as a lower request rate.
+ *
+ * <pre>
+ * mvn -f load-generator/pom.xml compile exec:java -Dloadgen.args="--rate 50 --duration 2m"
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String DEFAULT_COLLECTION = "postman/Performance-API-Collection.json";
+    private static final String DEFAULT_ENVIRONMENT = "postman/Performance-API-Environment.json";
+
+    // Destructive or non-API requests are skipped unless explicitly included
+    private static final String DEFAULT_EXCLUDE = "(?i).*(delete|h2 database console).*";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> variables = new HashMap<>();
+        Map<String, String> extraHeaders = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--") || i + 1 >= args.length) {
+                usage("Unexpected argument: " + arg);
+                return;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--var" -> {
+                    int eq = value.indexOf('=');
+                    if (eq <= 0) {
+                        usage("Expected --var name=value, got: " + value);
+                        return;
+                    }
+                    variables.put(value.substring(0, eq), value.substring(eq + 1));
+                }
+                case "--header" -> {
+                    int colon = value.indexOf(':');
+                    if (colon <= 0 || value.substring(0, colon).isBlank()) {
+                        usage("Expected --header 'Name: value', got: " + value);
+                        return;
+                    }
+                    extraHeaders.put(value.substring(0, colon).trim(), value.substring(colon + 1).trim());
+                }
+                default -> options.put(arg.substring(2), value);
+            }
+        }
+
+        Path collectionFile = locate(options.getOrDefault("collection", DEFAULT_COLLECTION));
+        Path environmentFile = locate(options.getOrDefault("environment", DEFAULT_ENVIRONMENT));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "0s"));
+        Duration timeout = parseDuration(options.getOrDefault("timeout", "30s"));
+        Pattern include = Pattern.compile(options.getOrDefault("include", ".*"));
+        Pattern exclude = Pattern.compile(options.getOrDefault("exclude", DEFAULT_EXCLUDE));
+        Path reportDir = Paths.get(options.getOrDefault("report",
+                "target/load-report/" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))));
+
+        List<RequestTemplate> requests = new ArrayList<>();
+        for (RequestTemplate request : PostmanCollection.load(collectionFile, environmentFile, variables).requests()) {
+            if (include.matcher(request.name()).matches() && !exclude.matcher(request.name()).matches()) {
+                requests.add(request);
+            }
+        }
+        if (requests.isEmpty()) {
+            usage("No requests in " + collectionFile + " match the include/exclude filters");
+            return;
+        }
+
+        ThreadMode threadMode = ThreadMode.detect();
+        ExecutorService executor = threadMode.newExecutor();
+        // The client keeps its own executor: shutting down the request executor at the end must not
+        // strand responses still being received
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+
+        System.out.printf("Replaying %d requests from %s at %.1f req/s for %ds (warmup %ds) on %s%n",
+                requests.size(), collectionFile, rate, duration.toSeconds(), warmup.toSeconds(), threadMode.description);
+
+        LatencyReport report = new LatencyReport(requests);
+        AtomicLong inFlight = new AtomicLong();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+
+        for (long n = 0; ; n++) {
+            long intendedStart = start + n * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            RequestTemplate template = requests.get((int) (n % requests.size()));
+            boolean recorded = intendedStart >= recordFrom;
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    send(client, template, extraHeaders, timeout, intendedStart, recorded ? report : null);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.out.println("Abandoning " + inFlight.get() + " requests still in flight after the timeout");
+            executor.shutdownNow();
+        }
+        report.write(reportDir, rate, duration.toSeconds(), threadMode.description);
+    }
+
+    private static void send(HttpClient client, RequestTemplate template, Map<String, String> extraHeaders,
+                             Duration timeout, long intendedStart, LatencyReport report) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(template.url())).timeout(timeout);
+        template.headers().forEach(builder::header);
+        extraHeaders.forEach(builder::setHeader);
+        builder.method(template.method(), template.hasBody()
+                ? HttpRequest.BodyPublishers.ofString(template.body())
+                : HttpRequest.BodyPublishers.noBody());
+        try {
+            HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (report != null) {
+                report.recordSuccess(template.name(), System.nanoTime() - intendedStart,
+                        response.statusCode(), response.body().length);
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (report != null) {
+                report.recordFailure(template.name(), System.nanoTime() - intendedStart);
+            }
+        }
+    }
+
+    private static Path locate(String location) {
+        // Allow running from the repository root or from the load-generator module directory
+        Path path = Paths.get(location);
+        if (!Files.exists(path) && !path.isAbsolute() && Files.exists(Paths.get("..").resolve(location))) {
+            return Paths.get("..").resolve(location);
+        }
+        return path;
+    }
+
+    private static Duration parseDuration(String text) {
+        String value = text.trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Options: --rate <req/s> --duration <60s|2m> --warmup <10s> --timeout <30s>");
+        System.err.println("         --include <regex> --exclude <regex> (matched against \"Folder/Request name\")");
+        System.err.println("         --collection <file> --environment <file> --report <dir>");
+        System.err.println("         --var key=value (overrides collection/environment variables, repeatable)");
+        System.err.println("         --header 'Name: value' (added to every request, repeatable)");
+        System.exit(2);
+    }
+
+    private enum ThreadMode {
+        VIRTUAL("virtual threads"),
+        PLATFORM("platform threads (virtual threads need Java 21+)");
+
+        private final String description;
+
+        ThreadMode(String description) {
+            this.description = description;
+        }
+
+        static ThreadMode detect() {
+            return virtualExecutorFactory() != null ? VIRTUAL : PLATFORM;
+        }
+
+        ExecutorService newExecutor() {
+            Method factory = virtualExecutorFactory();
+            if (this == VIRTUAL && factory != null) {
+                try {
+                    return (ExecutorService) factory.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    // Fall through to platform threads
+                }
+            }
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "loadgen-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private static Method virtualExecutorFactory() {
+            // Looked up reflectively so the module still compiles and runs on Java 17
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.performance.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a Postman v2.1 collection plus an optional environment file and flattens
+ * the folder tree into resolved {@link RequestTemplate}s named "Folder/Request".
+ */
+public final class PostmanCollection {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{([^}]+)}}");
+
+    private final List<RequestTemplate> requests;
+
+    private PostmanCollection(List<RequestTemplate> requests) {
+        this.requests = requests;
+    }
+
+    public static PostmanCollection load(Path collectionFile, Path environmentFile, Map<String, String> overrides)
+            throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode collection = mapper.readTree(collectionFile.toFile());
+
+        // Precedence follows Postman: environment beats collection variables, command line beats both
+        Map<String, String> variables = new HashMap<>();
+        for (JsonNode variable : collection.path("variable")) {
+            variables.put(variable.path("key").asText(), variable.path("value").asText());
+        }
+        if (environmentFile != null) {
+            JsonNode environment = mapper.readTree(environmentFile.toFile());
+            for (JsonNode value : environment.path("values")) {
+                if (value.path("enabled").asBoolean(true)) {
+                    variables.put(value.path("key").asText(), value.path("value").asText());
+                }
+            }
+        }
+        variables.putAll(overrides);
+
+        List<RequestTemplate> requests = new ArrayList<>();
+        collect(collection.path("item"), "", variables, requests);
+        return new PostmanCollection(requests);
+    }
+
+    public List<RequestTemplate> requests() {
+        return requests;
+    }
+
+    private static void collect(JsonNode items, String folder, Map<String, String> variables, List<RequestTemplate> out) {
+        for (JsonNode item : items) {
+            String name = folder.isEmpty() ? item.path("name").asText() : folder + "/" + item.path("name").asText();
+            if (item.has("item")) {
+                collect(item.path("item"), name, variables, out);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            String rawUrl = url.isTextual() ? url.asText() : url.path("raw").asText();
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (JsonNode header : request.path("header")) {
+                if (!header.path("disabled").asBoolean(false)) {
+                    headers.put(header.path("key").asText(), resolve(header.path("value").asText(), variables));
+                }
+            }
+
+            String body = null;
+            JsonNode bodyNode = request.path("body");
+            if ("raw".equals(bodyNode.path("mode").asText())) {
+                body = resolve(bodyNode.path("raw").asText(), variables);
+            }
+
+            out.add(new RequestTemplate(name, request.path("method").asText("GET"),
+                    resolve(rawUrl, variables), headers, body));
+        }
+    }
+
+    private static String resolve(String text, Map<String, String> variables) {
+        Matcher matcher = VARIABLE.matcher(text);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1).trim());
+            if (value == null) {
+                throw new IllegalArgumentException("Unresolved Postman variable {{" + matcher.group(1) + "}} in: " + text);
+            }
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+}
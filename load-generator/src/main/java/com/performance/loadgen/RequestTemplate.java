@@ -0,0 +1,13 @@
+package com.performance.loadgen;
+
+import java.util.Map;
+
+/**
+ * A single request from the Postman collection, with every {{variable}} already resolved.
+ */
+public record RequestTemplate(String name, String method, String url, Map<String, String> headers, String body) {
+
+    public boolean hasBody() {
+        return body != null && !body.isEmpty();
+    }
+}
@@ -91,6 +91,27 @@ if %errorlevel% neq 0 (
 call :print_success "%test_name% completed successfully"
 goto :eof
 
+REM Function to run the embedded Java load generator (no JMeter needed)
+:run_embedded_test
+set test_name=%~1
+set rate=%~2
+set duration=%~3
+if "%rate%"=="" set rate=20
+if "%duration%"=="" set duration=60s
+
+call :print_status "Running %test_name% with the embedded load generator (%rate% req/s for %duration%)..."
+
+call mvn -B -q -f load-generator\pom.xml compile exec:java ^
+    -Dloadgen.args="--rate %rate% --duration %duration% --warmup 10s --var baseUrl=%BASE_URL% --report %RESULTS_DIR%\%TIMESTAMP%\%test_name%-report"
+
+if %errorlevel% neq 0 (
+    call :print_error "%test_name% failed"
+    exit /b 1
+)
+
+call :print_success "%test_name% completed successfully"
+goto :eof
+
 REM Function to run performance test
 :run_performance_test
 call :print_status "Starting Performance Test Suite..."
@@ -216,11 +237,13 @@ echo   load          Basic load test (10 threads, 5 minutes)
 echo   stress        Stress test (100 threads, 15 minutes)
 echo   spike         Spike test (200 threads, 5 minutes)
 echo   data-driven   Data-driven test with CSV and JDBC
+echo   embedded      Replay the Postman collection with the embedded Java load generator (no JMeter)
 echo.
 echo Examples:
 echo   %0 --all                    # Run all test scenarios
 echo   %0 --scenario load          # Run load test only
 echo   %0 load                     # Run load test only
+echo   %0 embedded 50 120s         # 50 req/s for 2 minutes, no JMeter required
 echo.
 echo Environment Variables:
 echo   JMETER_HOME   Path to JMeter installation (default: C:\apache-jmeter-5.5)
@@ -239,6 +262,7 @@ if "%1"=="load" goto :run_scenario_direct
 if "%1"=="stress" goto :run_scenario_direct
 if "%1"=="spike" goto :run_scenario_direct
 if "%1"=="data-driven" goto :run_scenario_direct
+if "%1"=="embedded" goto :run_embedded
 if "%1"=="" goto :show_help
 goto :show_help
 
@@ -276,5 +300,13 @@ call :run_scenario "%1"
 call :analyze_results
 goto :eof
 
+REM Embedded load generator does not need JMeter
+:run_embedded
+call :check_api
+if %errorlevel% neq 0 exit /b 1
+call :create_results_dir
+call :run_embedded_test "embedded-test" "%2" "%3"
+goto :eof
+
 REM Run main function with all arguments
 call :main %*
@@ -35,6 +35,11 @@ print_error() {
     echo -e "${RED}[ERROR]${NC} $1"
 }
 
+# Function to tell whether JMeter is installed, without failing
+jmeter_available() {
+    [ -f "$JMETER_HOME/bin/jmeter" ]
+}
+
 # Function to check if JMeter is available
 check_jmeter() {
     if [ ! -d "$JMETER_HOME" ]; then
@@ -95,6 +100,72 @@ run_jmeter_test() {
     fi
 }
 
+# Function to run a scenario with the embedded Java load generator (no JMeter needed)
+run_embedded_test() {
+    local test_name="$1"
+    local rate="$2"
+    local duration="$3"
+    
+    print_status "Running $test_name with the embedded load generator ($rate req/s for $duration)..."
+    
+    mvn -B -q -f load-generator/pom.xml compile exec:java \
+        -Dloadgen.args="--rate $rate --duration $duration --warmup 10s --var baseUrl=$BASE_URL --report $RESULTS_DIR/$TIMESTAMP/$test_name-report"
+    
+    if [ $? -eq 0 ]; then
+        print_success "$test_name completed successfully"
+    else
+        print_error "$test_name failed"
+        return 1
+    fi
+}
+
+# Function to run the embedded equivalents of the JMeter scenarios
+run_embedded_scenario() {
+    local scenario="$1"
+    
+    case "$scenario" in
+        "all")
+            run_embedded_test "basic-load-test" 10 300s
+            run_embedded_test "stress-test" 50 600s
+            ;;
+        "load"|"data-driven")
+            run_embedded_test "load-test" 10 300s
+            ;;
+        "stress")
+            run_embedded_test "stress-test" 100 900s
+            ;;
+        "spike")
+            run_embedded_test "spike-test" 200 300s
+            ;;
+        *)
+            print_error "Unknown scenario: $scenario"
+            exit 1
+            ;;
+    esac
+}
+
+# Function to run a scenario with JMeter when installed, otherwise with the embedded generator
+run_with_available_tool() {
+    local scenario="$1"
+    
+    if jmeter_available; then
+        check_jmeter
+        check_api
+        create_results_dir
+        if [ "$scenario" = "all" ]; then
+            run_performance_test
+        else
+            run_scenario "$scenario"
+        fi
+        analyze_results
+    else
+        print_warning "JMeter not found at $JMETER_HOME, falling back to the embedded load generator"
+        check_api
+        create_results_dir
+        run_embedded_scenario "$scenario"
+    fi
+}
+
 # Function to run performance test
 run_performance_test() {
     print_status "Starting Performance Test Suite..."
@@ -235,11 +306,14 @@ show_help() {
     echo "  stress        Stress test (100 threads, 15 minutes)"
     echo "  spike         Spike test (200 threads, 5 minutes)"
     echo "  data-driven   Data-driven test with CSV and JDBC"
+    echo "  embedded      Replay the Postman collection with the embedded Java load generator"
+    echo "                (used automatically for the other scenarios when JMeter is not installed)"
     echo ""
     echo "Examples:"
     echo "  $0 --all                    # Run all test scenarios"
     echo "  $0 --scenario load          # Run load test only"
     echo "  $0 load                     # Run load test only"
+    echo "  $0 embedded 50 120s         # 50 req/s for 2 minutes, no JMeter required"
     echo ""
     echo "Environment Variables:"
     echo "  JMETER_HOME   Path to JMeter installation (default: /opt/apache-jmeter-5.5)"
@@ -255,11 +329,7 @@ main() {
             exit 0
             ;;
         -a|--all)
-            check_jmeter
-            check_api
-            create_results_dir
-            run_performance_test
-            analyze_results
+            run_with_available_tool "all"
             ;;
         -s|--scenario)
             if [ -z "$2" ]; then
@@ -267,18 +337,15 @@ main() {
                 show_help
                 exit 1
             fi
-            check_jmeter
-            check_api
-            create_results_dir
-            run_scenario "$2"
-            analyze_results
+            run_with_available_tool "$2"
             ;;
         load|stress|spike|data-driven)
-            check_jmeter
+            run_with_available_tool "$1"
+            ;;
+        embedded)
             check_api
             create_results_dir
-            run_scenario "$1"
-            analyze_results
+            run_embedded_test "embedded-test" "${2:-20}" "${3:-60s}"
             ;;
         "")
             print_error "No arguments provided"
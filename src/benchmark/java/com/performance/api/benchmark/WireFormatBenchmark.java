@@ -0,0 +1,124 @@
+package com.performance.api.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.performance.api.entity.Order;
+import com.performance.api.entity.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode/decode throughput of List&lt;Order&gt; in JSON, CBOR and Smile, using mappers configured
+ * like the application's converters. Bytes on the wire (raw and gzip) are printed once per trial.
+ *
+ * mvn -Pbenchmark compile exec:exec -Dbenchmark.args="WireFormatBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int orders;
+
+    private ObjectMapper mapper;
+
+    private JavaType orderList;
+
+    private List<Order> payload;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Boot's defaults on top of the plain builder: ISO-8601 dates instead of numeric timestamps
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> Jackson2ObjectMapperBuilder.json();
+        };
+        mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        orderList = mapper.getTypeFactory().constructCollectionType(List.class, Order.class);
+        payload = realisticOrders(orders);
+        encoded = mapper.writeValueAsBytes(payload);
+        System.out.printf("%n[wire] %s, %d orders: %d bytes, %d bytes gzip%n",
+                format, orders, encoded.length, gzipped(encoded));
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<Order> decode() throws IOException {
+        return mapper.readValue(encoded, orderList);
+    }
+
+    // Shaped like the seeded data: 1-5 items per order, two-decimal amounts, short notes
+    private static List<Order> realisticOrders(int count) {
+        Random random = new Random(42);
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Order> result = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            LocalDateTime created = base.plusMinutes(random.nextInt(500_000));
+            Order order = new Order(1 + (long) random.nextInt(200), BigDecimal.ZERO, statuses[random.nextInt(statuses.length)]);
+            order.setId(id);
+            order.setOrderDate(created);
+            order.setCreatedAt(created);
+            order.setUpdatedAt(created.plusHours(random.nextInt(72)));
+            order.setOrderNotes("Deliver to reception, order " + id + ", reference " + Long.toHexString(random.nextLong()));
+            BigDecimal total = BigDecimal.ZERO;
+            int items = 1 + random.nextInt(5);
+            for (int i = 0; i < items; i++) {
+                BigDecimal unitPrice = BigDecimal.valueOf(random.nextInt(100_000), 2).setScale(2, RoundingMode.UNNECESSARY);
+                OrderItem item = new OrderItem(id, 1 + (long) random.nextInt(500), 1 + random.nextInt(10), unitPrice);
+                item.setId(id * 10 + i);
+                item.setCreatedAt(created);
+                item.setUpdatedAt(created);
+                order.getOrderItems().add(item);
+                total = total.add(unitPrice.multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+            order.setTotalAmount(total);
+            result.add(order);
+        }
+        return result;
+    }
+
+    private static int gzipped(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
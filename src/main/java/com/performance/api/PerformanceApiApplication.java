@@ -1,13 +1,16 @@
 package com.performance.api;
 
+import com.performance.api.repository.ProjectingJpaRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableCaching
 @EnableTransactionManagement
+@EnableJpaRepositories(repositoryBaseClass = ProjectingJpaRepository.class)
 public class PerformanceApiApplication {
 
     public static void main(String[] args) {
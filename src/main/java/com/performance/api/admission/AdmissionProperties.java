@@ -0,0 +1,68 @@
+package com.performance.api.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "performance.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Fraction of the tenured pool that may stay occupied after a GC before heavy requests are refused
+    private double heapOccupancyLimit = 0.80;
+
+    // How long a heavy request may wait for memory budget before it gets a 503
+    private Duration queueTimeout = Duration.ofSeconds(2);
+
+    // Value of the Retry-After header on rejected requests
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    // Estimated heap cost per endpoint, keyed like "[GET /api/products/with-images]"; unlisted endpoints are free
+    private Map<String, DataSize> costs = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getHeapOccupancyLimit() {
+        return heapOccupancyLimit;
+    }
+
+    public void setHeapOccupancyLimit(double heapOccupancyLimit) {
+        this.heapOccupancyLimit = heapOccupancyLimit;
+    }
+
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public void setQueueTimeout(Duration queueTimeout) {
+        this.queueTimeout = queueTimeout;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Map<String, DataSize> getCosts() {
+        return costs;
+    }
+
+    public void setCosts(Map<String, DataSize> costs) {
+        this.costs = costs;
+    }
+}
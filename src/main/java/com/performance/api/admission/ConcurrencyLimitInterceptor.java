@@ -0,0 +1,101 @@
+package com.performance.api.admission;
+
+import com.performance.api.monitoring.RequestEndpoints;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds requests with 503 as soon as an endpoint group has as many requests in flight as its
+ * adaptive limit allows, instead of letting them queue in Tomcat and the service pools.
+ * The slot is taken before heap admission, so requests queued there count as in flight, but
+ * their time in that queue is left out of the latency fed to the limit: it measures the heap
+ * budget, not the group. A request heap admission sheds gives its slot back without a sample.
+ * Publishes app.concurrency.limit, app.concurrency.inflight and app.concurrency.rejected per group.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ACQUIRED_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".acquired";
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, GradientLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        // Async re-dispatches keep the slot taken on the first pass
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)
+                || request.getAttribute(ACQUIRED_ATTRIBUTE) != null) {
+            return true;
+        }
+        String group = groupOf(request);
+        GradientLimit limit = limits.computeIfAbsent(group, this::newLimit);
+        if (!limit.tryAcquire()) {
+            meterRegistry.counter("app.concurrency.rejected", "group", group).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfter().toSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Concurrency limit reached for " + group);
+            return false;
+        }
+        request.setAttribute(ACQUIRED_ATTRIBUTE, new Acquired(limit, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Acquired acquired = (Acquired) request.getAttribute(ACQUIRED_ATTRIBUTE);
+        if (acquired != null) {
+            request.removeAttribute(ACQUIRED_ATTRIBUTE);
+            HeapAdmissionInterceptor.Admission admission = HeapAdmissionInterceptor.admissionOf(request);
+            if (admission == null) {
+                acquired.limit().release(System.nanoTime() - acquired.startNanos());
+            } else if (admission.admitted()) {
+                acquired.limit().release(System.nanoTime() - acquired.startNanos() - admission.queuedNanos());
+            } else {
+                acquired.limit().release();
+            }
+        }
+    }
+
+    private String groupOf(HttpServletRequest request) {
+        String group = properties.getGroups().get(RequestEndpoints.of(request));
+        if (group != null) {
+            return group;
+        }
+        // "/api/products/{id}" -> "products"
+        String[] segments = request.getRequestURI().split("/", 4);
+        return segments.length > 2 ? segments[2] : "default";
+    }
+
+    private GradientLimit newLimit(String group) {
+        GradientLimit limit = new GradientLimit(properties);
+        Gauge.builder("app.concurrency.limit", limit, GradientLimit::getLimit)
+                .tag("group", group)
+                .register(meterRegistry);
+        Gauge.builder("app.concurrency.inflight", limit, GradientLimit::getInFlight)
+                .tag("group", group)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private record Acquired(GradientLimit limit, long startNanos) {
+    }
+}
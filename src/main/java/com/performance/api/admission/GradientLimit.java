@@ -0,0 +1,93 @@
+package com.performance.api.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one endpoint group, adjusted from measured latency.
+ *
+ * Each completed request compares its latency with a long-term average. While latency stays
+ * within {@code rttTolerance} of the average the limit grows by sqrt(limit); when requests get
+ * slower (H2 or the pools start queueing) the gradient average/sample drops below 1 and the
+ * limit shrinks proportionally. The long-term average decays quickly after an overload so the
+ * limit recovers once latency is back to normal.
+ */
+public class GradientLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    private final double longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    // Exponential moving average of latency in nanoseconds, guarded by this
+    private double longRtt;
+
+    public GradientLimit(ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.longWindow = properties.getLongWindow();
+        this.limit = properties.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a slot taken by tryAcquire() and feeds the request latency into the limit
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion);
+    }
+
+    // Releases a slot whose request never ran (shed after taking it); there is no latency to feed in
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        double shortRtt = Math.max(1, rttNanos);
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / longWindow;
+        }
+        // After a latency spike the average lags behind; pull it down so the limit can grow again
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // A group using less than half its limit says nothing about how far it could grow
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - smoothing) + estimate * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,100 @@
+package com.performance.api.admission;
+
+import com.performance.api.deadline.Deadline;
+import com.performance.api.monitoring.RequestEndpoints;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admits endpoints with a configured heap cost only while the budget allows it, queueing them
+ * for up to {@code performance.admission.queue-timeout} and answering 503 with Retry-After
+ * otherwise, or until the request deadline if that comes first. Endpoints without a cost
+ * (health checks, lookups by id) are never held back. The outcome and the time queued are kept
+ * on the request for ConcurrencyLimitInterceptor, which runs first.
+ */
+@Component
+public class HeapAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String RESERVED_ATTRIBUTE = HeapAdmissionInterceptor.class.getName() + ".reserved";
+
+    private static final String ADMISSION_ATTRIBUTE = HeapAdmissionInterceptor.class.getName() + ".admission";
+
+    private final AdmissionProperties properties;
+
+    private final HeapBudget budget;
+
+    private final MeterRegistry meterRegistry;
+
+    public HeapAdmissionInterceptor(AdmissionProperties properties, HeapBudget budget, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        // Async re-dispatches keep the reservation taken on the first pass
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)
+                || request.getAttribute(RESERVED_ATTRIBUTE) != null) {
+            return true;
+        }
+        String endpoint = RequestEndpoints.of(request);
+        DataSize cost = properties.getCosts().get(endpoint);
+        if (cost == null) {
+            return true;
+        }
+        boolean admitted;
+        long queueStarted = System.nanoTime();
+        try {
+            admitted = budget.reserve(cost.toBytes(), queueTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(admitted, System.nanoTime() - queueStarted));
+        if (!admitted) {
+            meterRegistry.counter("app.admission.rejected", "endpoint", endpoint, "reason", "heap").increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfter().toSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Heap occupancy too high, retry later");
+            return false;
+        }
+        request.setAttribute(RESERVED_ATTRIBUTE, cost);
+        return true;
+    }
+
+    // How the request went through heap admission, or null if its endpoint has no cost
+    static Admission admissionOf(HttpServletRequest request) {
+        return (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+    }
+
+    private Duration queueTimeout() {
+        Deadline deadline = Deadline.current();
+        if (deadline == null || deadline.remaining().compareTo(properties.getQueueTimeout()) > 0) {
+            return properties.getQueueTimeout();
+        }
+        return deadline.remaining();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        DataSize reserved = (DataSize) request.getAttribute(RESERVED_ATTRIBUTE);
+        if (reserved != null) {
+            request.removeAttribute(RESERVED_ATTRIBUTE);
+            budget.release(reserved.toBytes());
+        }
+    }
+
+    record Admission(boolean admitted, long queuedNanos) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.performance.api.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Heap reserved by in-flight expensive requests. A reservation fits while the heap is not under
+ * pressure and the reserved total stays within the headroom left after the last collection.
+ */
+@Component
+public class HeapBudget {
+
+    // Collections don't signal waiters, so they re-check at least this often
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final HeapPressureMonitor monitor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private long reservedBytes;
+
+    private int holders;
+
+    public HeapBudget(HeapPressureMonitor monitor, MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        Gauge.builder("app.admission.reserved", this, HeapBudget::reservedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits up to {@code timeout} for {@code cost} bytes; a successful reservation must be released.
+     */
+    public boolean reserve(long cost, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (!fits(cost)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                long waited = Math.min(remaining, RECHECK_NANOS);
+                remaining -= waited - released.awaitNanos(waited);
+            }
+            reservedBytes += cost;
+            holders++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long cost) {
+        lock.lock();
+        try {
+            reservedBytes -= cost;
+            holders--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long reservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long cost) {
+        if (monitor.isUnderPressure()) {
+            return false;
+        }
+        // A lone request always fits, otherwise a cost estimate above the headroom would starve its endpoint
+        return holders == 0 || reservedBytes + cost <= monitor.headroomBytes();
+    }
+}
@@ -0,0 +1,121 @@
+package com.performance.api.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Tracks old-generation occupancy after GC. A collection usage threshold is armed on every
+ * tenured pool at {@code performance.admission.heap-occupancy-limit}; the JVM raises a
+ * notification when a collection leaves the pool above it, and the pool reports whether the
+ * last collection is still above the threshold, which is what admission decisions read.
+ */
+@Component
+public class HeapPressureMonitor implements NotificationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(HeapPressureMonitor.class);
+
+    private final AdmissionProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private List<MemoryPoolMXBean> tenuredPools = List.of();
+
+    private Counter thresholdExceeded;
+
+    public HeapPressureMonitor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void install() {
+        // Eden and survivor pools support collection thresholds too, but only tenured pools support both kinds
+        tenuredPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(MemoryPoolMXBean::isUsageThresholdSupported)
+                .filter(MemoryPoolMXBean::isCollectionUsageThresholdSupported)
+                .toList();
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            long max = maxOf(pool.getUsage());
+            pool.setCollectionUsageThreshold((long) (max * properties.getHeapOccupancyLimit()));
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this, null, null);
+
+        thresholdExceeded = meterRegistry.counter("app.heap.threshold.exceeded");
+        Gauge.builder("app.heap.occupancy.after.gc", this, HeapPressureMonitor::occupancy)
+                .description("Fraction of the tenured pool still in use after the last collection")
+                .register(meterRegistry);
+        log.info("Heap admission control armed at {}% of {}", Math.round(properties.getHeapOccupancyLimit() * 100),
+                tenuredPools.stream().map(MemoryPoolMXBean::getName).toList());
+    }
+
+    @PreDestroy
+    public void uninstall() {
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(this);
+        } catch (ListenerNotFoundException ignored) {
+            // Never registered
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            thresholdExceeded.increment();
+            log.warn("Heap occupancy after GC above {}% ({}), refusing expensive requests",
+                    Math.round(properties.getHeapOccupancyLimit() * 100), String.format("%.2f", occupancy()));
+        }
+    }
+
+    public boolean isUnderPressure() {
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            if (pool.isCollectionUsageThresholdExceeded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bytes that may still be retained before the occupancy limit is reached, based on the last collection
+    public long headroomBytes() {
+        long headroom = 0;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            headroom += Math.max(0, pool.getCollectionUsageThreshold() - (afterGc != null ? afterGc.getUsed() : 0));
+        }
+        return headroom;
+    }
+
+    public double occupancy() {
+        double occupancy = 0;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc != null) {
+                occupancy = Math.max(occupancy, (double) afterGc.getUsed() / maxOf(afterGc));
+            }
+        }
+        return occupancy;
+    }
+
+    // Pools without a fixed maximum (max == -1) are measured against what they have committed
+    private static long maxOf(MemoryUsage usage) {
+        return usage.getMax() > 0 ? usage.getMax() : Math.max(1, usage.getCommitted());
+    }
+}
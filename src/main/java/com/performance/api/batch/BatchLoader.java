@@ -0,0 +1,54 @@
+package com.performance.api.batch;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * DataLoader-style batcher. load() hands out one future per key and queues the key; dispatch()
+ * resolves every key queued since the last dispatch with a single call of the batch function
+ * (one IN query), completing the futures on the calling thread. A key loaded twice gets the same
+ * future, and keys the batch function does not return resolve to null.
+ *
+ * Not thread-safe: an instance lives for one request.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+
+    private final Map<K, CompletableFuture<V>> futures = new HashMap<>();
+
+    private final Set<K> queued = new LinkedHashSet<>();
+
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    public CompletableFuture<V> load(K key) {
+        return futures.computeIfAbsent(key, k -> {
+            queued.add(k);
+            return new CompletableFuture<>();
+        });
+    }
+
+    public void dispatch() {
+        if (queued.isEmpty()) {
+            return;
+        }
+        Set<K> keys = new LinkedHashSet<>(queued);
+        queued.clear();
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(keys);
+        } catch (RuntimeException e) {
+            keys.forEach(key -> futures.get(key).completeExceptionally(e));
+            throw e;
+        }
+        for (K key : keys) {
+            futures.get(key).complete(values.get(key));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.performance.api.batch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Multi-get (?ids=) support for the services. A request may ask for at most
+ * performance.multi-get.max-ids distinct ids, so the IN list stays bounded; what the query found
+ * is returned in the order the ids were asked for, once each, without the ids that don't exist.
+ */
+@Component
+public class MultiGet {
+
+    private final int maxIds;
+
+    public MultiGet(@Value("${performance.multi-get.max-ids:100}") int maxIds) {
+        this.maxIds = maxIds;
+    }
+
+    // Distinct ids in request order; none, a missing one or too many is IllegalArgumentException
+    public Set<Long> ids(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Empty id in ids");
+            }
+            distinct.add(id);
+        }
+        if (distinct.isEmpty() || distinct.size() > maxIds) {
+            throw new IllegalArgumentException("Between 1 and " + maxIds + " ids can be requested, got " + distinct.size());
+        }
+        return distinct;
+    }
+
+    public <T> List<T> inRequestedOrder(Set<Long> ids, Collection<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T entity : found) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,102 @@
+package com.performance.api.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.performance.api.entity.Order;
+import com.performance.api.entity.OrderItem;
+import com.performance.api.repository.ProductRepository;
+import com.performance.api.repository.ProjectionRepository;
+import com.performance.api.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ?expand= on order reads. Each order is its usual JSON with the expanded relations embedded:
+ * "user" on the order and "product" on each item. The references of all the orders in a response
+ * are collected first and resolved per entity type by a BatchLoader, so an expanded list costs one
+ * IN query for the users and one for the products however many orders, items and distinct ids it
+ * holds. Embedded users and products are their basic columns, as ?fields= would select them: no
+ * images, profile data or order items.
+ *
+ * Ids per batch query are recorded in app.batch.keys{type}.
+ */
+@Component
+public class OrderExpander {
+
+    private static final List<String> PRODUCT_FIELDS = List.of("name", "description", "price", "category", "stockQuantity",
+            "createdAt", "updatedAt");
+
+    private static final List<String> USER_FIELDS = List.of("username", "email", "firstName", "lastName", "createdAt", "updatedAt");
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductRepository productRepository;
+
+    private final UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    public OrderExpander(ObjectMapper objectMapper, ProductRepository productRepository, UserRepository userRepository,
+                         MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Transactional(readOnly = true)
+    public JsonNode expand(Order order, Set<OrderExpansion> expansions) {
+        return expand(List.of(order), expansions).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<JsonNode> expand(List<Order> orders, Set<OrderExpansion> expansions) {
+        BatchLoader<Long, Map<String, Object>> users = new BatchLoader<>(ids -> load("user", userRepository, ids, USER_FIELDS));
+        BatchLoader<Long, Map<String, Object>> products = new BatchLoader<>(ids -> load("product", productRepository, ids, PRODUCT_FIELDS));
+        List<JsonNode> nodes = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            ObjectNode node = objectMapper.valueToTree(order);
+            if (expansions.contains(OrderExpansion.USER) && order.getUserId() != null) {
+                users.load(order.getUserId()).thenAccept(user -> node.set("user", objectMapper.valueToTree(user)));
+            }
+            if (expansions.contains(OrderExpansion.ITEMS_PRODUCT) && node.get("orderItems") instanceof ArrayNode itemNodes) {
+                // Serialized in list order, so the n-th node is the n-th item
+                List<OrderItem> items = order.getOrderItems();
+                for (int i = 0; i < items.size() && i < itemNodes.size(); i++) {
+                    ObjectNode itemNode = (ObjectNode) itemNodes.get(i);
+                    Long productId = items.get(i).getProductId();
+                    if (productId != null) {
+                        products.load(productId).thenAccept(product -> itemNode.set("product", objectMapper.valueToTree(product)));
+                    }
+                }
+            }
+            nodes.add(node);
+        }
+        users.dispatch();
+        products.dispatch();
+        return nodes;
+    }
+
+    private Map<Long, Map<String, Object>> load(String type, ProjectionRepository<?, Long> repository, Set<Long> ids,
+                                                List<String> fields) {
+        DistributionSummary.builder("app.batch.keys")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(ids.size());
+        Map<Long, Map<String, Object>> byId = new HashMap<>();
+        for (Map<String, Object> row : repository.findProjectedByIds(ids, fields)) {
+            byId.put((Long) row.get("id"), row);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,50 @@
+package com.performance.api.batch;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Relations an order read can embed with ?expand=. The items are always part of an order; "items"
+ * is accepted so clients can spell out the path, and items.product implies it.
+ */
+public enum OrderExpansion {
+
+    ITEMS("items"),
+    ITEMS_PRODUCT("items.product"),
+    USER("user");
+
+    private final String path;
+
+    OrderExpansion(String path) {
+        this.path = path;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    // Unknown paths are rejected with IllegalArgumentException
+    public static Set<OrderExpansion> parse(Collection<String> paths) {
+        Set<OrderExpansion> expansions = EnumSet.noneOf(OrderExpansion.class);
+        for (String path : paths) {
+            if (path == null || path.isBlank()) {
+                continue;
+            }
+            expansions.add(of(path.trim()));
+        }
+        if (expansions.contains(ITEMS_PRODUCT)) {
+            expansions.add(ITEMS);
+        }
+        return expansions;
+    }
+
+    private static OrderExpansion of(String path) {
+        for (OrderExpansion expansion : values()) {
+            if (expansion.path.equals(path)) {
+                return expansion;
+            }
+        }
+        throw new IllegalArgumentException("Unknown expansion '" + path + "'; expected items, items.product or user");
+    }
+}
@@ -0,0 +1,227 @@
+package com.performance.api.compression;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Large text kept deflated, in the entity as well as in the column (see CompressedTextConverter).
+ * of() compresses when the value is set; text() inflates on every call, so entities, the
+ * second-level cache and projections hold only the compressed bytes, and decompression is paid
+ * only where the text is actually read.
+ *
+ * Stored values are a two-byte header, the UTF-8 length of the text (-1 if it was streamed) and
+ * the deflate stream. Anything else was written before compression and is plain UTF-8; it is
+ * read as is until CompressedTextMigration rewrites it. compressing() and decompressing()
+ * convert between text and stored bytes as streams, for columns too large to hold.
+ *
+ * Publishes app.lob.compression.encode and .decode timers and the app.lob.compression.ratio
+ * summary (text bytes per stored byte) on the global registry, as values are created outside
+ * the application context.
+ */
+public final class CompressedText implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final byte[] HEADER = {0, 'D'};
+
+    private static final int PREFIX_LENGTH = HEADER.length + Integer.BYTES;
+
+    // Written by compressing(), which cannot know the length before the end of the stream
+    private static final int UNKNOWN_LENGTH = -1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Generated notes and profiles compress about as well at level 1 as at 6, in half the time
+    private static final int LEVEL = Deflater.BEST_SPEED;
+
+    private static final Timer ENCODE = Timer.builder("app.lob.compression.encode").register(Metrics.globalRegistry);
+
+    private static final Timer DECODE = Timer.builder("app.lob.compression.decode").register(Metrics.globalRegistry);
+
+    private static final DistributionSummary RATIO = DistributionSummary.builder("app.lob.compression.ratio")
+            .register(Metrics.globalRegistry);
+
+    private final byte[] stored;
+
+    private CompressedText(byte[] stored) {
+        this.stored = stored;
+    }
+
+    public static CompressedText of(String text) {
+        if (text == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(LEVEL);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(PREFIX_LENGTH + utf8.length / 8);
+            out.writeBytes(prefix(utf8.length));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            byte[] stored = out.toByteArray();
+            ENCODE.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            RATIO.record(utf8.length / (double) stored.length);
+            return new CompressedText(stored);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // The column value as read; not copied, callers must not modify it
+    public static CompressedText fromStored(byte[] stored) {
+        return stored == null ? null : new CompressedText(stored);
+    }
+
+    // The column value to write; not copied, callers must not modify it
+    public byte[] stored() {
+        return stored;
+    }
+
+    // False for values written before compression
+    public boolean isCompressed() {
+        return isCompressed(stored);
+    }
+
+    // Inflated on every call on purpose. A cached String would live as long as the value, i.e. as long as
+    // its entity is held by a session, the services' static caches or a response being built, and would
+    // put back the heap this class saves (a 57 MB note next to its 1 MB of deflate). A soft reference
+    // would only give it back under the heap pressure admission control sheds load on. The getters
+    // are called once per serialization; code reading the text more than once keeps the String itself.
+    @JsonValue
+    public String text() {
+        if (!isCompressed()) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+        long started = System.nanoTime();
+        int length = ByteBuffer.wrap(stored, HEADER.length, Integer.BYTES).getInt();
+        byte[] utf8;
+        if (length == UNKNOWN_LENGTH) {
+            try (InputStream text = decompressing(new ByteArrayInputStream(stored))) {
+                utf8 = text.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt compressed text", e);
+            }
+        } else {
+            utf8 = inflate(length);
+        }
+        DECODE.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stored form of the UTF-8 text read from {@code utf8}, compressed while it is read, for writing
+     * a column without holding the text. Closing it closes {@code utf8}.
+     */
+    public static InputStream compressing(InputStream utf8) {
+        Deflater deflater = new Deflater(LEVEL);
+        InputStream body = new DeflaterInputStream(utf8, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                    if (deflater.finished()) {
+                        RATIO.record(deflater.getBytesRead() / (double) (PREFIX_LENGTH + deflater.getBytesWritten()));
+                    }
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+        return new SequenceInputStream(new ByteArrayInputStream(prefix(UNKNOWN_LENGTH)), body);
+    }
+
+    /**
+     * UTF-8 text of the stored value read from {@code stored}, inflated while it is read; values
+     * written before compression pass through. Closing it closes {@code stored}.
+     */
+    public static InputStream decompressing(InputStream stored) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(stored, PREFIX_LENGTH);
+        byte[] prefix = in.readNBytes(PREFIX_LENGTH);
+        if (!isCompressed(prefix)) {
+            in.unread(prefix);
+            return in;
+        }
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    private byte[] inflate(int length) {
+        byte[] utf8 = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, PREFIX_LENGTH, stored.length - PREFIX_LENGTH);
+            int inflatedLength = 0;
+            while (inflatedLength < length && !inflater.finished()) {
+                int inflated = inflater.inflate(utf8, inflatedLength, length - inflatedLength);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                inflatedLength += inflated;
+            }
+            return utf8;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean isCompressed(byte[] stored) {
+        return stored.length >= PREFIX_LENGTH && stored[0] == HEADER[0] && stored[1] == HEADER[1];
+    }
+
+    private static byte[] prefix(int length) {
+        return ByteBuffer.allocate(PREFIX_LENGTH).put(HEADER).putInt(length).array();
+    }
+
+    // Compares stored bytes, which is what dirty checking needs; of() is deterministic for equal texts
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof CompressedText text && Arrays.equals(stored, text.stored);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(stored);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedText[" + stored.length + " bytes" + (isCompressed() ? "]" : ", uncompressed]");
+    }
+}
@@ -0,0 +1,25 @@
+package com.performance.api.compression;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
+
+/**
+ * Maps CompressedText to its stored bytes. Values are immutable, so Hibernate neither deep-copies
+ * them for dirty checking nor decompresses them to compare.
+ */
+@Converter
+@Mutability(Immutability.class)
+public class CompressedTextConverter implements AttributeConverter<CompressedText, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(CompressedText text) {
+        return text == null ? null : text.stored();
+    }
+
+    @Override
+    public CompressedText convertToEntityAttribute(byte[] stored) {
+        return CompressedText.fromStored(stored);
+    }
+}
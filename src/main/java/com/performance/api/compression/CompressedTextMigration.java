@@ -0,0 +1,149 @@
+package com.performance.api.compression;
+
+import com.performance.api.datasource.WorkloadClass;
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compresses text LOBs written before CompressedText, in the background after startup.
+ *
+ * Such rows only exist in databases restored from an older snapshot. Their CLOB columns are first
+ * converted to BLOB, which keeps the text as UTF-8, the legacy form CompressedText reads. Rows are
+ * then rewritten in id order, a batch per transaction, locked while being rewritten so a
+ * concurrent update is never overwritten. The text does not change, so no events are published
+ * and cached entities stay valid; the replica keeps the uncompressed copies until it is rebuilt.
+ *
+ * Counts rewritten rows in app.lob.compression.migrated{table}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "performance.compression.migration", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class CompressedTextMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(CompressedTextMigration.class);
+
+    private final DataSource dataSource;
+
+    private final int batchSize;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService migrator =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("lob-migration-"));
+
+    public CompressedTextMigration(WorkloadPools pools,
+                                   @Value("${performance.compression.migration.batch-size:200}") int batchSize,
+                                   MeterRegistry meterRegistry) {
+        this.dataSource = pools.get(Target.PRIMARY, WorkloadClass.BULK);
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        migrator.execute(() -> {
+            for (TextColumn column : TextColumn.values()) {
+                try {
+                    migrate(column);
+                } catch (SQLException e) {
+                    // Uncompressed rows stay readable; the next start tries again
+                    log.error("Compressing {}.{} failed", column.table(), column.column(), e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migrator.shutdownNow();
+    }
+
+    private void migrate(TextColumn column) throws SQLException {
+        long started = System.nanoTime();
+        convertClobColumn(column);
+        Counter migrated = meterRegistry.counter("app.lob.compression.migrated", "table", column.table());
+        long scanned = 0;
+        long rewritten = 0;
+        long lastId = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT id, " + column.column() + " FROM "
+                     + column.table() + " WHERE id > ? AND " + column.column() + " IS NOT NULL ORDER BY id"
+                     + " FETCH FIRST ? ROWS ONLY FOR UPDATE");
+             PreparedStatement update = connection.prepareStatement("UPDATE " + column.table() + " SET "
+                     + column.column() + " = ? WHERE id = ?")) {
+            connection.setAutoCommit(false);
+            int batch;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                select.setLong(1, lastId);
+                select.setInt(2, batchSize);
+                batch = 0;
+                int pending = 0;
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        batch++;
+                        lastId = rows.getLong(1);
+                        CompressedText stored = CompressedText.fromStored(rows.getBytes(2));
+                        if (!stored.isCompressed()) {
+                            update.setBytes(1, CompressedText.of(stored.text()).stored());
+                            update.setLong(2, lastId);
+                            update.addBatch();
+                            pending++;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    update.executeBatch();
+                }
+                connection.commit();
+                scanned += batch;
+                rewritten += pending;
+                migrated.increment(pending);
+            } while (batch == batchSize);
+        }
+        if (rewritten > 0) {
+            log.info("Compressed {} of {} {}.{} values in {} ms", rewritten, scanned, column.table(), column.column(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void convertClobColumn(TextColumn column) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement type = connection.prepareStatement("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS"
+                     + " WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            type.setString(1, column.table().toUpperCase());
+            type.setString(2, column.column().toUpperCase());
+            try (ResultSet result = type.executeQuery()) {
+                if (!result.next() || !"CHARACTER LARGE OBJECT".equals(result.getString(1))) {
+                    return;
+                }
+            }
+            try (PreparedStatement alter = connection.prepareStatement("ALTER TABLE " + column.table()
+                    + " ALTER COLUMN " + column.column() + " SET DATA TYPE BINARY LARGE OBJECT")) {
+                alter.execute();
+            }
+            log.info("Converted {}.{} from CLOB to BLOB", column.table(), column.column());
+        }
+    }
+}
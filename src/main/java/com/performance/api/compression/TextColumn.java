@@ -0,0 +1,37 @@
+package com.performance.api.compression;
+
+import com.performance.api.entity.Order;
+import com.performance.api.entity.User;
+
+/**
+ * Columns mapped to CompressedText.
+ */
+public enum TextColumn {
+
+    ORDER_NOTES(Order.class, "orders", "order_notes"),
+    USER_PROFILE(User.class, "users", "profile_data");
+
+    private final Class<?> entityType;
+
+    private final String table;
+
+    private final String column;
+
+    TextColumn(Class<?> entityType, String table, String column) {
+        this.entityType = entityType;
+        this.table = table;
+        this.column = column;
+    }
+
+    public Class<?> entityType() {
+        return entityType;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public String column() {
+        return column;
+    }
+}
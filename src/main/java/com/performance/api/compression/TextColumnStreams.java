@@ -0,0 +1,122 @@
+package com.performance.api.compression;
+
+import com.performance.api.monitoring.SqlStatementScope;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes text columns as streams, without the text ever being held: reads inflate the
+ * column's binary stream into the caller's output, writes deflate the caller's input into the
+ * column, both through fixed-size buffers.
+ *
+ * Runs on the caller's transaction connection. Writes bypass the entity, so they set updated_at
+ * and evict the entity from the second-level cache after commit themselves; publishing the
+ * change event is left to the calling service, as for entity writes.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class TextColumnStreams {
+
+    private final DataSource dataSource;
+
+    private final Cache cache;
+
+    public TextColumnStreams(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.cache = entityManagerFactory.getCache();
+    }
+
+    public Outcome copyTo(TextColumn column, Long id, Target target) throws SQLException, IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement select = prepare(connection,
+                "SELECT " + column.column() + " FROM " + column.table() + " WHERE id = ?")) {
+            select.setLong(1, id);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return Outcome.NOT_FOUND;
+                }
+                Blob blob = row.getBlob(1);
+                if (blob == null) {
+                    return Outcome.EMPTY;
+                }
+                try (InputStream text = CompressedText.decompressing(blob.getBinaryStream());
+                     OutputStream out = target.open()) {
+                    text.transferTo(out);
+                } finally {
+                    blob.free();
+                }
+                return Outcome.COPIED;
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // False if there is no such row; the input is then left unread
+    public boolean replaceFrom(TextColumn column, Long id, InputStream utf8) throws SQLException, IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (PreparedStatement lock = prepare(connection,
+                    "SELECT id FROM " + column.table() + " WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, id);
+                try (ResultSet row = lock.executeQuery()) {
+                    if (!row.next()) {
+                        return false;
+                    }
+                }
+            }
+            try (PreparedStatement update = prepare(connection, "UPDATE " + column.table() + " SET "
+                    + column.column() + " = ?, updated_at = ? WHERE id = ?");
+                 InputStream stored = CompressedText.compressing(utf8)) {
+                update.setBinaryStream(1, stored);
+                update.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                update.setLong(3, id);
+                update.executeUpdate();
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(column.entityType(), id);
+            }
+        });
+        return true;
+    }
+
+    // Counted like Hibernate's statements, so the request's X-SQL-Statement-Count and budget include them
+    private static PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        SqlStatementScope.record(sql);
+        return connection.prepareStatement(sql);
+    }
+
+    public enum Outcome {
+        NOT_FOUND, EMPTY, COPIED
+    }
+
+    // Opened only once there is text to copy, so the caller can still answer 404 or 204 otherwise
+    @FunctionalInterface
+    public interface Target {
+
+        OutputStream open() throws IOException;
+    }
+}
@@ -9,13 +9,16 @@ import com.performance.api.repository.ProductRepository;
 import com.performance.api.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 
+// The "synthetic" profile seeds a large generated data set instead (SyntheticDataGenerator)
 @Component
+@Profile("!synthetic")
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
@@ -0,0 +1,32 @@
+package com.performance.api.config;
+
+import com.performance.api.datasource.ReplicaReplicator;
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.datasource.WorkloadRoutingDataSource;
+import com.performance.api.deadline.DeadlineDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * The data source JPA uses: routes each transaction to a pool by database (primary or replica) and
+ * workload class, and stops statements past the request deadline. The pools themselves live in
+ * WorkloadPools.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // Lazy so the connection is taken at the first statement, after the transaction's read-only flag is set
+    @Bean
+    public DataSource dataSource(WorkloadPools pools, ObjectProvider<ReplicaReplicator> replicator,
+                                 MeterRegistry meterRegistry) {
+        WorkloadRoutingDataSource routing =
+                new WorkloadRoutingDataSource(pools.routable(), replicator.getIfAvailable(), meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(new DeadlineDataSource(routing));
+    }
+}
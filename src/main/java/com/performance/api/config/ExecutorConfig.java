@@ -0,0 +1,82 @@
+package com.performance.api.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+
+/**
+ * Service executors. They keep the original fixed sizes and unbounded queues, but tasks go
+ * through every TaskDecorator bean so request-scoped state (resource accounting, deadlines) follows them.
+ *
+ * With spring.threads.virtual.enabled (Java 21) each task gets its own virtual thread instead;
+ * the size becomes a cap on concurrent tasks, and a submitter past it waits rather than queueing.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private final Environment environment;
+
+    public ExecutorConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    // Performance issue: Fixed thread pool that can cause resource exhaustion
+    @Bean
+    public AsyncTaskExecutor productExecutor(ObjectProvider<TaskDecorator> decorators) {
+        return fixedPool("product-", 50, decorators);
+    }
+
+    // Performance issue: Fixed thread pool that can cause resource exhaustion
+    @Bean
+    public AsyncTaskExecutor orderExecutor(ObjectProvider<TaskDecorator> decorators) {
+        return fixedPool("order-", 75, decorators);
+    }
+
+    // Performance issue: Fixed thread pool that can cause resource exhaustion
+    @Bean
+    public AsyncTaskExecutor userExecutor(ObjectProvider<TaskDecorator> decorators) {
+        return fixedPool("user-", 100, decorators);
+    }
+
+    private AsyncTaskExecutor fixedPool(String prefix, int threads, ObjectProvider<TaskDecorator> decorators) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads);
+            executor.setTaskDecorator(new CompositeTaskDecorator(decorators.orderedStream().toList()));
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(prefix);
+        executor.setTaskDecorator(new CompositeTaskDecorator(decorators.orderedStream().toList()));
+        return executor;
+    }
+
+    static final class CompositeTaskDecorator implements TaskDecorator {
+
+        private final List<TaskDecorator> decorators;
+
+        CompositeTaskDecorator(List<TaskDecorator> decorators) {
+            this.decorators = decorators;
+        }
+
+        @Override
+        public Runnable decorate(Runnable runnable) {
+            Runnable decorated = runnable;
+            for (TaskDecorator decorator : decorators) {
+                decorated = decorator.decorate(decorated);
+            }
+            return decorated;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.performance.api.config;
+
+import com.performance.api.monitoring.SqlStatementInspector;
+import com.performance.api.snapshot.SnapshotRestore;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+    }
+
+    // A restored snapshot already has the schema and data; create-drop would wipe it. Update only adds
+    // what the snapshot predates, such as new columns
+    @Bean
+    public HibernatePropertiesCustomizer snapshotSchemaCustomizer(SnapshotRestore snapshotRestore) {
+        return properties -> {
+            if (snapshotRestore.isRestored()) {
+                properties.put(AvailableSettings.HBM2DDL_AUTO, "update");
+            }
+        };
+    }
+}
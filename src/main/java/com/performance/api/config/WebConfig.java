@@ -0,0 +1,42 @@
+package com.performance.api.config;
+
+import com.performance.api.admission.ConcurrencyLimitInterceptor;
+import com.performance.api.admission.HeapAdmissionInterceptor;
+import com.performance.api.monitoring.ResponseSerializationInterceptor;
+import com.performance.api.web.FieldsetArgumentResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ResponseSerializationInterceptor responseSerializationInterceptor;
+
+    @Autowired
+    private ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Autowired
+    private HeapAdmissionInterceptor heapAdmissionInterceptor;
+
+    @Autowired
+    private FieldsetArgumentResolver fieldsetArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(fieldsetArgumentResolver);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Shed on concurrency first: a rejection there is cheaper than waiting for heap budget
+        registry.addInterceptor(concurrencyLimitInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(heapAdmissionInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(responseSerializationInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -1,19 +1,36 @@
 package com.performance.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.performance.api.batch.OrderExpander;
+import com.performance.api.batch.OrderExpansion;
+import com.performance.api.compression.TextColumnStreams;
 import com.performance.api.entity.Order;
 import com.performance.api.entity.OrderItem;
+import com.performance.api.repository.VersionStamp;
+import com.performance.api.rollup.RollupBucket;
+import com.performance.api.rollup.RollupGranularity;
 import com.performance.api.service.OrderService;
+import com.performance.api.web.ConditionalRequests;
+import com.performance.api.web.Fieldset;
+import com.performance.api.web.PlainTextBodies;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,6 +40,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private OrderExpander orderExpander;
+    
     @GetMapping
     public ResponseEntity<List<Order>> getAllOrders() {
         try {
@@ -34,9 +54,28 @@ public class OrderController {
         }
     }
     
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllOrders(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> orderService.getAllOrders(names)));
+    }
+    
+    @GetMapping(params = {"expand", "!fields"})
+    public ResponseEntity<List<JsonNode>> getExpandedOrders(@RequestParam Set<String> expand) {
+        return expanded(expand, () -> orderService.getAllOrders());
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<Order> getOrderById(@PathVariable Long id, WebRequest request) {
         try {
+            // Revalidation reads only the version columns: a 304 skips the entity load and serialization
+            Optional<VersionStamp> version = orderService.getOrderVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (ConditionalRequests.checkNotModified(request, "order-" + version.get().fingerprint(), version.get().lastModified())) {
+                return null;
+            }
+            
             // Performance issue: Loads order with all related data
             Optional<Order> order = orderService.getOrderById(id);
             return order.map(ResponseEntity::ok)
@@ -46,6 +85,26 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getOrderById(@PathVariable Long id, Fieldset fields) {
+        return fields.select(names -> orderService.getOrderById(id, names)).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping(value = "/{id}", params = {"expand", "!fields"})
+    public ResponseEntity<JsonNode> getExpandedOrderById(@PathVariable Long id, @RequestParam Set<String> expand) {
+        try {
+            Set<OrderExpansion> expansions = OrderExpansion.parse(expand);
+            // Expanded user and products come from one IN query per type
+            return orderService.getOrderById(id).map(order -> ResponseEntity.ok(orderExpander.expand(order, expansions)))
+                         .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
         try {
@@ -70,6 +129,37 @@ public class OrderController {
         }
     }
     
+    @GetMapping("/{id}/notes")
+    public ResponseEntity<Void> getOrderNotes(@PathVariable Long id, HttpServletResponse response) {
+        try {
+            // Inflated from the column straight into the response, never held as a String
+            TextColumnStreams.Outcome outcome = orderService.streamOrderNotes(id, PlainTextBodies.to(response));
+            return switch (outcome) {
+                case NOT_FOUND -> ResponseEntity.notFound().build();
+                case EMPTY -> ResponseEntity.noContent().build();
+                case COPIED -> null;
+            };
+        } catch (Exception e) {
+            // Once the body has started the status is sent; the client sees a truncated body
+            return response.isCommitted() ? null : ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @PutMapping(value = "/{id}/notes", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Void> replaceOrderNotes(@PathVariable Long id, HttpServletRequest request) {
+        if (!PlainTextBodies.isUtf8(request)) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        try {
+            // Deflated from the request body straight into the column
+            return orderService.replaceOrderNotes(id, request.getInputStream())
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         try {
@@ -94,6 +184,16 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/user/{userId}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getOrdersByUserId(@PathVariable Long userId, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> orderService.getOrdersByUserId(userId, names)));
+    }
+    
+    @GetMapping(value = "/user/{userId}", params = {"expand", "!fields"})
+    public ResponseEntity<List<JsonNode>> getExpandedOrdersByUserId(@PathVariable Long userId, @RequestParam Set<String> expand) {
+        return expanded(expand, () -> orderService.getOrdersByUserId(userId));
+    }
+    
     @GetMapping("/status/{status}")
     public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable Order.OrderStatus status) {
         try {
@@ -105,6 +205,16 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/status/{status}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getOrdersByStatus(@PathVariable Order.OrderStatus status, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> orderService.getOrdersByStatus(status, names)));
+    }
+    
+    @GetMapping(value = "/status/{status}", params = {"expand", "!fields"})
+    public ResponseEntity<List<JsonNode>> getExpandedOrdersByStatus(@PathVariable Order.OrderStatus status, @RequestParam Set<String> expand) {
+        return expanded(expand, () -> orderService.getOrdersByStatus(status));
+    }
+    
     @GetMapping("/date-range")
     public ResponseEntity<List<Order>> getOrdersByDateRange(
             @RequestParam LocalDateTime startDate, 
@@ -118,6 +228,41 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/date-range", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getOrdersByDateRange(
+            @RequestParam LocalDateTime startDate, 
+            @RequestParam LocalDateTime endDate,
+            Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> orderService.getOrdersByDateRange(startDate, endDate, names)));
+    }
+    
+    @GetMapping(value = "/date-range", params = {"expand", "!fields"})
+    public ResponseEntity<List<JsonNode>> getExpandedOrdersByDateRange(
+            @RequestParam LocalDateTime startDate, 
+            @RequestParam LocalDateTime endDate,
+            @RequestParam Set<String> expand) {
+        return expanded(expand, () -> orderService.getOrdersByDateRange(startDate, endDate));
+    }
+    
+    // Orders and revenue per bucket and status from the hourly rollups; the last 90 days by default
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupBucket>> getOrderRollups(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to,
+            @RequestParam(required = false) Order.OrderStatus status) {
+        try {
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusDays(90);
+            if (!start.isBefore(end)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(orderService.getOrderRollups(granularity, start, end, status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/min-amount")
     public ResponseEntity<List<Order>> getOrdersByMinAmount(@RequestParam BigDecimal minAmount) {
         try {
@@ -129,6 +274,16 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/min-amount", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getOrdersByMinAmount(@RequestParam BigDecimal minAmount, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> orderService.getOrdersByMinAmount(minAmount, names)));
+    }
+    
+    @GetMapping(value = "/min-amount", params = {"expand", "!fields"})
+    public ResponseEntity<List<JsonNode>> getExpandedOrdersByMinAmount(@RequestParam BigDecimal minAmount, @RequestParam Set<String> expand) {
+        return expanded(expand, () -> orderService.getOrdersByMinAmount(minAmount));
+    }
+    
     @GetMapping("/with-notes")
     public ResponseEntity<List<Order>> getOrdersWithNotes() {
         try {
@@ -140,6 +295,16 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/with-notes", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getOrdersWithNotes(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> orderService.getOrdersWithNotes(names)));
+    }
+    
+    @GetMapping(value = "/with-notes", params = {"expand", "!fields"})
+    public ResponseEntity<List<JsonNode>> getExpandedOrdersWithNotes(@RequestParam Set<String> expand) {
+        return expanded(expand, () -> orderService.getOrdersWithNotes());
+    }
+    
     @PostMapping("/with-items")
     public ResponseEntity<Order> createOrderWithItems(
             @RequestParam Long userId, 
@@ -181,4 +346,17 @@ public class OrderController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Order service is running");
     }
+    
+    // ?expand= on a list read: users and products of all the orders come from one IN query per type.
+    // The paths are parsed before the orders are read, so an unknown one costs no query
+    private ResponseEntity<List<JsonNode>> expanded(Set<String> expand, Supplier<List<Order>> orders) {
+        try {
+            Set<OrderExpansion> expansions = OrderExpansion.parse(expand);
+            return ResponseEntity.ok(orderExpander.expand(orders.get(), expansions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
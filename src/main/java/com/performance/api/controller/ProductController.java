@@ -1,15 +1,25 @@
 package com.performance.api.controller;
 
 import com.performance.api.entity.Product;
+import com.performance.api.repository.VersionStamp;
 import com.performance.api.service.ProductService;
+import com.performance.api.web.ConditionalRequests;
+import com.performance.api.web.Fieldset;
+import com.performance.api.web.Representation;
+import com.performance.api.web.ResourceVersions;
+import com.performance.api.web.ResponseByteCache;
+import com.performance.api.web.ResponseByteCache.CachedResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -21,9 +31,20 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private ResponseByteCache responseByteCache;
+    
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<Product>> getAllProducts(WebRequest request) {
         try {
+            ResourceVersions.Version version = resourceVersions.current(Product.class);
+            if (ConditionalRequests.checkNotModified(request, version.tag("products"), version.lastModified())) {
+                return null;
+            }
+            
             // Performance issue: No pagination, loads all products
             List<Product> products = productService.getAllProducts();
             return ResponseEntity.ok(products);
@@ -32,18 +53,71 @@ public class ProductController {
         }
     }
     
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllProducts(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.getAllProducts(names)));
+    }
+    
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Product>> getProductsByIds(@RequestParam List<Long> ids) {
+        try {
+            // Multi-get: one IN query for all the ids instead of one request per product
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping(params = {"ids", "fields"})
+    public ResponseEntity<List<Map<String, Object>>> getProductsByIds(@RequestParam List<Long> ids, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.getProductsByIds(ids, names)));
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request, HttpServletResponse response) {
         try {
+            // Hot path: bytes already encoded for this representation, no database or Jackson work
+            Representation representation = Representation.negotiate(request, true);
+            CachedResponse cached = responseByteCache.get(Product.class, id, representation);
+            if (cached != null) {
+                if (!ConditionalRequests.checkNotModified(request, representation, cached.tag(), cached.lastModified())) {
+                    cached.writeTo(response);
+                }
+                return null;
+            }
+            
+            long generation = responseByteCache.generation();
+            // Revalidation reads only the version columns: a 304 skips the entity load and serialization
+            Optional<VersionStamp> version = productService.getProductVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String tag = "product-" + version.get().fingerprint();
+            if (ConditionalRequests.checkNotModified(request, representation, tag, version.get().lastModified())) {
+                return null;
+            }
+            
             // Performance issue: Loads product with all related data
             Optional<Product> product = productService.getProductById(id);
-            return product.map(ResponseEntity::ok)
-                         .orElse(ResponseEntity.notFound().build());
+            if (product.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            responseByteCache.put(Product.class, id, representation, product.get(), tag, version.get().lastModified(), generation)
+                    .writeTo(response);
+            return null;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getProductById(@PathVariable Long id, Fieldset fields) {
+        return fields.select(names -> productService.getProductById(id, names)).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
         try {
@@ -92,9 +166,19 @@ public class ProductController {
         }
     }
     
+    @GetMapping(value = "/search", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> searchProducts(@RequestParam String keyword, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.searchProducts(keyword, names)));
+    }
+    
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category, WebRequest request) {
         try {
+            ResourceVersions.Version version = resourceVersions.current(Product.class);
+            if (ConditionalRequests.checkNotModified(request, version.tag("products"), version.lastModified())) {
+                return null;
+            }
+            
             // Performance issue: Loads all products with full order details
             List<Product> products = productService.getProductsByCategory(category);
             return ResponseEntity.ok(products);
@@ -103,6 +187,11 @@ public class ProductController {
         }
     }
     
+    @GetMapping(value = "/category/{category}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getProductsByCategory(@PathVariable String category, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.getProductsByCategory(category, names)));
+    }
+    
     @GetMapping("/price-range")
     public ResponseEntity<List<Product>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice, 
@@ -116,6 +205,14 @@ public class ProductController {
         }
     }
     
+    @GetMapping(value = "/price-range", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getProductsByPriceRange(
+            @RequestParam BigDecimal minPrice, 
+            @RequestParam BigDecimal maxPrice,
+            Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.getProductsByPriceRange(minPrice, maxPrice, names)));
+    }
+    
     @GetMapping("/available")
     public ResponseEntity<List<Product>> getAvailableProducts() {
         try {
@@ -127,6 +224,11 @@ public class ProductController {
         }
     }
     
+    @GetMapping(value = "/available", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAvailableProducts(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.getAvailableProducts(names)));
+    }
+    
     @GetMapping("/with-images")
     public ResponseEntity<List<Product>> getProductsWithImages() {
         try {
@@ -138,6 +240,11 @@ public class ProductController {
         }
     }
     
+    @GetMapping(value = "/with-images", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getProductsWithImages(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> productService.getProductsWithImages(names)));
+    }
+    
     @GetMapping("/async")
     public ResponseEntity<CompletableFuture<List<Product>>> getAllProductsAsync() {
         try {
@@ -1,14 +1,24 @@
 package com.performance.api.controller;
 
+import com.performance.api.compression.TextColumnStreams;
 import com.performance.api.entity.User;
+import com.performance.api.repository.VersionStamp;
 import com.performance.api.service.UserService;
+import com.performance.api.web.ConditionalRequests;
+import com.performance.api.web.Fieldset;
+import com.performance.api.web.PlainTextBodies;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -31,9 +41,40 @@ public class UserController {
         }
     }
     
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllUsers(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> userService.getAllUsers(names)));
+    }
+    
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<User>> getUsersByIds(@RequestParam List<Long> ids) {
+        try {
+            // Multi-get: one IN query for all the ids instead of one request per user
+            return ResponseEntity.ok(userService.getUsersByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping(params = {"ids", "fields"})
+    public ResponseEntity<List<Map<String, Object>>> getUsersByIds(@RequestParam List<Long> ids, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> userService.getUsersByIds(ids, names)));
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
         try {
+            // Revalidation reads only the version columns: a 304 skips the entity load and serialization
+            Optional<VersionStamp> version = userService.getUserVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (ConditionalRequests.checkNotModified(request, "user-" + version.get().fingerprint(), version.get().lastModified())) {
+                return null;
+            }
+            
             // Performance issue: Loads user with all related data
             Optional<User> user = userService.getUserById(id);
             return user.map(ResponseEntity::ok)
@@ -43,6 +84,12 @@ public class UserController {
         }
     }
     
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getUserById(@PathVariable Long id, Fieldset fields) {
+        return fields.select(names -> userService.getUserById(id, names)).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PostMapping
     public ResponseEntity<User> createUser(@Valid @RequestBody User user) {
         try {
@@ -67,6 +114,37 @@ public class UserController {
         }
     }
     
+    @GetMapping("/{id}/profile")
+    public ResponseEntity<Void> getProfileData(@PathVariable Long id, HttpServletResponse response) {
+        try {
+            // Inflated from the column straight into the response, never held as a String
+            TextColumnStreams.Outcome outcome = userService.streamProfileData(id, PlainTextBodies.to(response));
+            return switch (outcome) {
+                case NOT_FOUND -> ResponseEntity.notFound().build();
+                case EMPTY -> ResponseEntity.noContent().build();
+                case COPIED -> null;
+            };
+        } catch (Exception e) {
+            // Once the body has started the status is sent; the client sees a truncated body
+            return response.isCommitted() ? null : ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @PutMapping(value = "/{id}/profile", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Void> replaceProfileData(@PathVariable Long id, HttpServletRequest request) {
+        if (!PlainTextBodies.isUtf8(request)) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        try {
+            // Deflated from the request body straight into the column
+            return userService.replaceProfileData(id, request.getInputStream())
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         try {
@@ -91,6 +169,11 @@ public class UserController {
         }
     }
     
+    @GetMapping(value = "/search", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> searchUsers(@RequestParam String keyword, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> userService.searchUsers(keyword, names)));
+    }
+    
     @GetMapping("/pending-orders")
     public ResponseEntity<List<User>> getUsersWithPendingOrders() {
         try {
@@ -102,6 +185,11 @@ public class UserController {
         }
     }
     
+    @GetMapping(value = "/pending-orders", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getUsersWithPendingOrders(Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> userService.getUsersWithPendingOrders(names)));
+    }
+    
     @GetMapping("/recent")
     public ResponseEntity<List<User>> getRecentUsers(@RequestParam String emailDomain) {
         try {
@@ -113,6 +201,11 @@ public class UserController {
         }
     }
     
+    @GetMapping(value = "/recent", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getRecentUsers(@RequestParam String emailDomain, Fieldset fields) {
+        return ResponseEntity.ok(fields.select(names -> userService.getRecentUsers(emailDomain, names)));
+    }
+    
     @GetMapping("/async")
     public ResponseEntity<CompletableFuture<List<User>>> getAllUsersAsync() {
         try {
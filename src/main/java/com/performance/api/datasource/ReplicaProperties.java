@@ -0,0 +1,62 @@
+package com.performance.api.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "performance.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = true;
+
+    private String url = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private String username = "sa";
+
+    private String password = "";
+
+    // How long a committed write waits before it is copied to the replica, standing in for replication lag
+    private Duration applyDelay = Duration.ofMillis(100);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public Duration getApplyDelay() {
+        return applyDelay;
+    }
+
+    public void setApplyDelay(Duration applyDelay) {
+        this.applyDelay = applyDelay;
+    }
+}
@@ -0,0 +1,284 @@
+package com.performance.api.datasource;
+
+import com.performance.api.entity.Order;
+import com.performance.api.entity.Product;
+import com.performance.api.entity.User;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import com.performance.api.event.EntityChangedEvent;
+import com.performance.api.footprint.FootprintRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replication stand-in that keeps the replica H2 database in sync with the primary.
+ *
+ * The replica reads the primary through H2 linked tables. Once a write commits, the rows it can
+ * have touched are replaced by their current primary image after {@code apply-delay}. Copying
+ * current state instead of replaying statements makes applies idempotent and order-independent.
+ * A change counts as pending from the moment it is published until it is applied. The routing
+ * data source keeps reads on the primary while anything is pending.
+ *
+ * Publishes app.replica.pending, app.replica.lag (age of the oldest pending change) and the
+ * app.replica.apply timer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "performance.datasource.replica", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class ReplicaReplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaReplicator.class);
+
+    private static final String LINK_SCHEMA = "PRIMARY_LINK";
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    // Rows a change can touch, as predicates on the change's id. %s is the schema prefix; deletes run in
+    // this order so child rows are still found through their parents
+    private static final Map<Class<?>, List<RowSet>> CHANGED_ROWS = Map.of(
+            Product.class, List.of(
+                    new RowSet("order_items", "product_id = ?"),
+                    new RowSet("products", "id = ?")),
+            Order.class, List.of(
+                    new RowSet("order_items", "order_id = ?"),
+                    new RowSet("orders", "id = ?")),
+            User.class, List.of(
+                    new RowSet("order_items", "order_id IN (SELECT id FROM %sorders WHERE user_id = ?)"),
+                    new RowSet("orders", "user_id = ?"),
+                    new RowSet("users", "id = ?")));
+
+    private final DataSource primaryDataSource;
+
+    private final DataSource replicaDataSource;
+
+    private final DataSourceProperties primaryProperties;
+
+    private final String primaryUrl;
+
+    private final long applyDelayMillis;
+
+    private final Set<Pending> pending = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService applier =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-apply-"));
+
+    private final Timer applyTimer;
+
+    public ReplicaReplicator(WorkloadPools pools,
+                             DataSourceProperties primaryProperties,
+                             ReplicaProperties properties,
+                             FootprintRegistry footprints,
+                             MeterRegistry meterRegistry) {
+        this.primaryDataSource = pools.get(Target.PRIMARY, WorkloadClass.BULK);
+        this.replicaDataSource = pools.get(Target.REPLICA, WorkloadClass.WRITE);
+        this.primaryProperties = primaryProperties;
+        this.primaryUrl = pools.primaryUrl();
+        this.applyDelayMillis = properties.getApplyDelay().toMillis();
+        this.applyTimer = Timer.builder("app.replica.apply").register(meterRegistry);
+        Gauge.builder("app.replica.pending", pending, Set::size).register(meterRegistry);
+        footprints.register("ReplicaReplicator.pending", FootprintRegistry.Kind.BUFFER, () -> pending);
+        Gauge.builder("app.replica.lag", this, ReplicaReplicator::lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        // The replica is empty until the first full copy
+        pending.add(new Pending(null));
+    }
+
+    public boolean isCaughtUp() {
+        return pending.isEmpty();
+    }
+
+    public double lagSeconds() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (Pending change : pending) {
+            oldest = Math.min(oldest, change.publishedAt());
+        }
+        return (now - oldest) / 1e9;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        Pending change = new Pending(event);
+        pending.add(change);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    schedule(change);
+                } else {
+                    pending.remove(change);
+                }
+            }
+        });
+    }
+
+    // Startup data is written by a CommandLineRunner without events, while requests are already served
+    @EventListener(ApplicationReadyEvent.class)
+    public void resynchronize() {
+        scheduleResync(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        applier.shutdownNow();
+    }
+
+    private void schedule(Pending change) {
+        applier.schedule(() -> apply(change), applyDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleResync(long delayMillis) {
+        Pending resync = new Pending(null);
+        pending.add(resync);
+        applier.schedule(() -> apply(resync), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void apply(Pending change) {
+        try {
+            applyTimer.recordCallable(() -> {
+                if (change.event() == null) {
+                    copyAll();
+                } else {
+                    copyRows(change.event());
+                }
+                return null;
+            });
+            // A full copy also covers the placeholder registered before the first one
+            if (change.event() == null) {
+                pending.removeIf(other -> other.event() == null && other.publishedAt() <= change.publishedAt());
+            }
+            pending.remove(change);
+        } catch (Exception e) {
+            // A missed change would leave the replica silently behind; rebuild it and keep reads on the primary
+            log.error("Replica apply failed for {}, rebuilding replica", change.event(), e);
+            pending.remove(change);
+            scheduleResync(RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void copyRows(EntityChangedEvent event) throws SQLException {
+        List<RowSet> rowSets = CHANGED_ROWS.get(event.entityType());
+        if (rowSets == null) {
+            return;
+        }
+        try (Connection replica = replicaDataSource.getConnection()) {
+            replica.setAutoCommit(false);
+            for (RowSet rowSet : rowSets) {
+                execute(replica, "DELETE FROM " + rowSet.table() + " WHERE " + rowSet.where(""), event.id());
+            }
+            for (RowSet rowSet : rowSets) {
+                execute(replica, "INSERT INTO " + rowSet.table() + " SELECT * FROM " + LINK_SCHEMA + "."
+                        + rowSet.table() + " WHERE " + rowSet.where(LINK_SCHEMA + "."), event.id());
+            }
+            replica.commit();
+        }
+    }
+
+    // Recreates the replica schema from the primary's and copies every table
+    private void copyAll() throws SQLException {
+        List<String> schema = new ArrayList<>();
+        List<String> tables = new ArrayList<>();
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement statement = primary.createStatement()) {
+            try (ResultSet script = statement.executeQuery("SCRIPT NODATA")) {
+                while (script.next()) {
+                    schema.add(script.getString(1));
+                }
+            }
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'")) {
+                while (result.next()) {
+                    tables.add(result.getString(1));
+                }
+            }
+        }
+        try (Connection replica = replicaDataSource.getConnection();
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String ddl : schema) {
+                statement.execute(ddl);
+            }
+            // Row images arrive table by table, so parents may briefly be missing
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            statement.execute("CREATE SCHEMA " + LINK_SCHEMA);
+            for (String table : tables) {
+                statement.execute("CREATE LINKED TABLE " + LINK_SCHEMA + "." + table + "('', "
+                        + literal(primaryUrl) + ", "
+                        + literal(primaryProperties.determineUsername()) + ", "
+                        + literal(primaryProperties.determinePassword()) + ", 'PUBLIC', " + literal(table)
+                        + ") READONLY");
+                statement.execute("INSERT INTO " + table + " SELECT * FROM " + LINK_SCHEMA + "." + table);
+            }
+        }
+        log.info("Replica rebuilt from primary ({} tables)", tables.size());
+    }
+
+    private static void execute(Connection connection, String sql, Long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    private static String literal(String value) {
+        return "'" + (value == null ? "" : value.replace("'", "''")) + "'";
+    }
+
+    private record RowSet(String table, String predicate) {
+
+        String where(String schemaPrefix) {
+            return predicate.formatted(schemaPrefix);
+        }
+    }
+
+    // Identity-based on purpose: the same event may be published twice and each must be applied
+    private static final class Pending {
+
+        private final EntityChangedEvent event;
+
+        private final long publishedAt = System.nanoTime();
+
+        Pending(EntityChangedEvent event) {
+            this.event = event;
+        }
+
+        EntityChangedEvent event() {
+            return event;
+        }
+
+        long publishedAt() {
+            return publishedAt;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.performance.api.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Picks the connection pool for a service method (or every method of a class). The pool is chosen
+ * when the transaction runs its first statement, so this only matters on methods that start one or
+ * run before the enclosing transaction touched the database.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    WorkloadClass value();
+}
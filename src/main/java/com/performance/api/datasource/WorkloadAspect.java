@@ -0,0 +1,31 @@
+package com.performance.api.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the {@link Workload} of the called method (or its class) for the duration of the call.
+ */
+@Aspect
+@Component
+public class WorkloadAspect {
+
+    @Around("@annotation(com.performance.api.datasource.Workload) || @within(com.performance.api.datasource.Workload)")
+    public Object bindWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(signature.getDeclaringType(), Workload.class);
+        }
+        WorkloadClass previous = WorkloadClass.bind(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadClass.restore(previous);
+        }
+    }
+}
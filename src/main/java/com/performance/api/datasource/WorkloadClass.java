@@ -0,0 +1,39 @@
+package com.performance.api.datasource;
+
+/**
+ * Workload classes with their own connection pools, so one class exhausting its pool only makes
+ * its own callers wait.
+ */
+public enum WorkloadClass {
+
+    // Single-row and small reads a user is waiting on; the default for read-only transactions
+    INTERACTIVE,
+
+    // Read-write transactions; the default when the transaction is not read-only
+    WRITE,
+
+    // Full scans, reports and async fan-out that may hold connections for seconds
+    BULK;
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    // Declared class of the work running on this thread, or null if it was not annotated
+    public static WorkloadClass current() {
+        return CURRENT.get();
+    }
+
+    // Returns the previous value for restore()
+    public static WorkloadClass bind(WorkloadClass workload) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    public static void restore(WorkloadClass previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.performance.api.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "performance.datasource")
+public class WorkloadPoolProperties {
+
+    // Pool settings per workload class, used for the primary and the replica alike
+    private Map<WorkloadClass, Pool> pools = new EnumMap<>(Map.of(
+            WorkloadClass.INTERACTIVE, new Pool(10, Duration.ofSeconds(2)),
+            WorkloadClass.WRITE, new Pool(10, Duration.ofSeconds(5)),
+            WorkloadClass.BULK, new Pool(4, Duration.ofSeconds(30))));
+
+    public Map<WorkloadClass, Pool> getPools() {
+        return pools;
+    }
+
+    public void setPools(Map<WorkloadClass, Pool> pools) {
+        this.pools = pools;
+    }
+
+    public Pool pool(WorkloadClass workload) {
+        return pools.getOrDefault(workload, new Pool());
+    }
+
+    public static class Pool {
+
+        private int maximumPoolSize = 10;
+
+        // How long a caller waits for a connection before it fails
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+
+        public Pool() {
+        }
+
+        public Pool(int maximumPoolSize, Duration connectionTimeout) {
+            this.maximumPoolSize = maximumPoolSize;
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.performance.api.datasource;
+
+import com.performance.api.datasource.WorkloadRoutingDataSource.Route;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.performance.api.snapshot.SnapshotRestore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One Hikari pool per database and workload class (primary-write, primary-interactive,
+ * replica-bulk, ...). Every pool publishes the hikaricp.connections.* meters tagged with its
+ * name: acquire (wait time), active, pending and timeout among others.
+ *
+ * Each pool is bound to spring.datasource.hikari.* first, as Boot's own pool would be, and then
+ * takes its name, size and connection timeout from its workload class.
+ */
+@Component
+public class WorkloadPools {
+
+    private static final String HIKARI_PROPERTIES = "spring.datasource.hikari";
+
+    private final Map<Route, HikariDataSource> pools = new LinkedHashMap<>();
+
+    private final String primaryUrl;
+
+    public WorkloadPools(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties,
+                         WorkloadPoolProperties poolProperties, SnapshotRestore snapshotRestore,
+                         MeterRegistry meterRegistry, Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.primaryUrl = snapshotRestore.primaryUrl(primaryProperties.determineUrl());
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            Route route = new Route(Target.PRIMARY, workload);
+            DataSourceBuilder<?> builder = primaryProperties.initializeDataSourceBuilder().url(primaryUrl);
+            pools.put(route, configure(builder, route, binder, poolProperties, meterRegistry));
+        }
+        if (replicaProperties.isEnabled()) {
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                Route route = new Route(Target.REPLICA, workload);
+                DataSourceBuilder<?> builder = DataSourceBuilder.create()
+                        .url(replicaProperties.getUrl())
+                        .username(replicaProperties.getUsername())
+                        .password(replicaProperties.getPassword());
+                pools.put(route, configure(builder, route, binder, poolProperties, meterRegistry));
+            }
+        }
+    }
+
+    // The configured URL, or the restored snapshot's working copy
+    public String primaryUrl() {
+        return primaryUrl;
+    }
+
+    public DataSource get(Target target, WorkloadClass workload) {
+        return pools.get(new Route(target, workload));
+    }
+
+    // Pools application transactions may use; the replica's WRITE pool is reserved for replication
+    public Map<Route, DataSource> routable() {
+        Map<Route, DataSource> routable = new LinkedHashMap<>(pools);
+        routable.remove(new Route(Target.REPLICA, WorkloadClass.WRITE));
+        return routable;
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource configure(DataSourceBuilder<?> builder, Route route, Binder binder,
+                                              WorkloadPoolProperties poolProperties, MeterRegistry meterRegistry) {
+        WorkloadPoolProperties.Pool settings = poolProperties.pool(route.workload());
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PROPERTIES, Bindable.ofInstance(pool));
+        pool.setPoolName(route.poolName());
+        pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+        pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
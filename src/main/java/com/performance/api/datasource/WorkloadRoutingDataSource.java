@@ -0,0 +1,78 @@
+package com.performance.api.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks a connection pool by database and workload class.
+ *
+ * {@code @Transactional(readOnly = true)} work goes to the replica, everything else to the
+ * primary. A read-only transaction still goes to the primary while the replica has not applied
+ * every write published so far, so reads never go back in time (and the response, ETag and
+ * second-level caches never store an older state than the primary has). Within a database the
+ * {@link Workload} of the running method picks the pool, defaulting to INTERACTIVE for read-only
+ * and WRITE for read-write transactions.
+ *
+ * The decision reads the transaction's read-only flag, which is only set once the transaction has
+ * begun; wrap this in a LazyConnectionDataSourceProxy so the connection is fetched at the first
+ * statement. Every decision is counted in app.datasource.routing{target, workload, read_only}.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    public record Route(Target target, WorkloadClass workload) {
+
+        public String poolName() {
+            return target.name().toLowerCase() + "-" + workload.name().toLowerCase();
+        }
+    }
+
+    private final ReplicaReplicator replicator;
+
+    private final Map<Route, Map<Boolean, Counter>> decisions = new HashMap<>();
+
+    // replicator is null when the replica is disabled
+    public WorkloadRoutingDataSource(Map<Route, DataSource> pools, ReplicaReplicator replicator,
+                                     MeterRegistry meterRegistry) {
+        this.replicator = replicator;
+        for (Route route : pools.keySet()) {
+            Map<Boolean, Counter> byReadOnly = new HashMap<>();
+            for (boolean readOnly : new boolean[] {true, false}) {
+                byReadOnly.put(readOnly, Counter.builder("app.datasource.routing")
+                        .tag("target", route.target().name().toLowerCase())
+                        .tag("workload", route.workload().name().toLowerCase())
+                        .tag("read_only", String.valueOf(readOnly))
+                        .register(meterRegistry));
+            }
+            decisions.put(route, byReadOnly);
+        }
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(new Route(Target.PRIMARY, WorkloadClass.WRITE)));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        WorkloadClass workload = WorkloadClass.current();
+        if (workload == null) {
+            workload = readOnly ? WorkloadClass.INTERACTIVE : WorkloadClass.WRITE;
+        }
+        Route route;
+        if (readOnly && replicator != null && replicator.isCaughtUp()) {
+            route = new Route(Target.REPLICA, workload == WorkloadClass.WRITE ? WorkloadClass.INTERACTIVE : workload);
+        } else {
+            route = new Route(Target.PRIMARY, workload);
+        }
+        decisions.get(route).get(readOnly).increment();
+        return route;
+    }
+}
@@ -0,0 +1,28 @@
+package com.performance.api.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs executor tasks under the workload class of the code that submitted them, so async fan-out
+ * from a bulk method uses the bulk pools.
+ */
+@Component
+public class WorkloadTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        WorkloadClass workload = WorkloadClass.current();
+        if (workload == null) {
+            return task;
+        }
+        return () -> {
+            WorkloadClass previous = WorkloadClass.bind(workload);
+            try {
+                task.run();
+            } finally {
+                WorkloadClass.restore(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.performance.api.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of one request, taken from the caller's X-Request-Timeout. Bound to the request
+ * thread and carried into executor tasks, so JDBC statements, waits and async continuations
+ * started on the request's behalf stop once the caller has given up on the answer.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    // Fires cancellations of statements still running when their deadline passes
+    private static final ScheduledThreadPoolExecutor TIMER = timer();
+
+    private final Duration budget;
+
+    private final long expiresAtNanos;
+
+    private Deadline(Duration budget) {
+        this.budget = budget;
+        this.expiresAtNanos = System.nanoTime() + budget.toNanos();
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(budget);
+    }
+
+    // Deadline of the request this thread works for, or null if the caller set none
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    // Returns the previous value for restore()
+    public static Deadline bind(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous;
+    }
+
+    public static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    // Throws if the work on this thread has a deadline and it has passed
+    public static void checkCurrent() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public void check() {
+        if (isExpired()) {
+            throw exceeded();
+        }
+    }
+
+    public DeadlineExceededException exceeded() {
+        return new DeadlineExceededException(budget);
+    }
+
+    /**
+     * Runs {@code action} when the deadline passes, on the timer thread; cancel the returned
+     * future once the guarded work is done. An expired deadline runs it right away.
+     */
+    public Future<?> onExpiry(Runnable action) {
+        return TIMER.schedule(action, Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor timer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "deadline-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Nearly every statement finishes in time; don't keep their cancelled timeouts queued
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
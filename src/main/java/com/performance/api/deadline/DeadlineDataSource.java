@@ -0,0 +1,152 @@
+package com.performance.api.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Future;
+
+/**
+ * Applies the deadline of the calling thread to JDBC: no statement is prepared or executed once
+ * it has passed, and a statement still executing when it passes is cancelled.
+ *
+ * Cancelling instead of Statement.setQueryTimeout: H2 applies a query timeout to the whole
+ * session, so it would stay on the pooled connection for later requests, and it has whole-second
+ * granularity.
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    public DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(DeadlineDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    Deadline.checkCurrent();
+                    Statement statement = (Statement) DeadlineDataSource.invoke(target, method, args);
+                    return proxy(statementType(method), new StatementHandler(statement));
+                default:
+                    return DeadlineDataSource.invoke(target, method, args);
+            }
+        }
+
+        private static Class<? extends Statement> statementType(Method method) {
+            if (CallableStatement.class.isAssignableFrom(method.getReturnType())) {
+                return CallableStatement.class;
+            }
+            return PreparedStatement.class.isAssignableFrom(method.getReturnType()) ? PreparedStatement.class : Statement.class;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        // Guards executing, so the timer never cancels a statement that has already returned
+        private final Object lock = new Object();
+
+        private boolean executing;
+
+        StatementHandler(Statement target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                default:
+                    Deadline deadline = Deadline.current();
+                    if (deadline == null || !method.getName().startsWith("execute")) {
+                        return DeadlineDataSource.invoke(target, method, args);
+                    }
+                    return execute(deadline, method, args);
+            }
+        }
+
+        private Object execute(Deadline deadline, Method method, Object[] args) throws Throwable {
+            deadline.check();
+            synchronized (lock) {
+                executing = true;
+            }
+            Future<?> timeout = deadline.onExpiry(this::cancel);
+            try {
+                return DeadlineDataSource.invoke(target, method, args);
+            } finally {
+                synchronized (lock) {
+                    executing = false;
+                }
+                timeout.cancel(false);
+            }
+        }
+
+        private void cancel() {
+            synchronized (lock) {
+                if (executing) {
+                    try {
+                        target.cancel();
+                    } catch (SQLException e) {
+                        // Already finished or closed; the next check stops the request anyway
+                    }
+                }
+            }
+        }
+    }
+}
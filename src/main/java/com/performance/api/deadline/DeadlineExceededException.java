@@ -0,0 +1,13 @@
+package com.performance.api.deadline;
+
+import java.time.Duration;
+
+/**
+ * Work for a request was abandoned because its deadline passed before it ran.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(Duration budget) {
+        super("Request deadline of " + budget.toMillis() + " ms exceeded");
+    }
+}
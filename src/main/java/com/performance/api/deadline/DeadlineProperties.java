@@ -0,0 +1,43 @@
+package com.performance.api.deadline;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "performance.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    // Budget of requests without X-Request-Timeout; null leaves them without a deadline
+    private Duration defaultTimeout;
+
+    // Longest budget a caller may ask for; larger values are lowered to it
+    private Duration maxTimeout = Duration.ofSeconds(60);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+}
@@ -0,0 +1,28 @@
+package com.performance.api.deadline;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs executor tasks under the deadline of the request that submitted them. A task still queued
+ * when it passes runs anyway (a CompletableFuture must complete), but fails at its first statement.
+ */
+@Component
+public class DeadlineTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = Deadline.bind(deadline);
+            try {
+                task.run();
+            } finally {
+                Deadline.restore(previous);
+            }
+        };
+    }
+}
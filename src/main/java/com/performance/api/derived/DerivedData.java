@@ -0,0 +1,124 @@
+package com.performance.api.derived;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * The data derived from products, users and orders, and fingerprints of the inputs it is derived
+ * from. DerivedDataStage stores both next to the entity; SyntheticDataGenerator fills them in when
+ * seeding.
+ *
+ * The processed digests stand for what processProductData, processUserData and processOrderData
+ * computed on every read. Only the value of their last iteration survived the loops, so it is
+ * built directly and stored as a digest.
+ */
+public final class DerivedData {
+
+    private static final int PRODUCT_ITERATIONS = 10_000;
+
+    private static final int PRODUCT_SUBSTEPS = 100;
+
+    private static final int USER_ITERATIONS = 5_000;
+
+    private static final int USER_SUBSTEPS = 50;
+
+    private static final int ORDER_ITERATIONS = 3_000;
+
+    private static final int SEARCH_KEYWORDS_MAX_LENGTH = 255;
+
+    private DerivedData() {
+    }
+
+    // Keywords only see the price and stock bands, so a write moving within a band derives nothing
+    public static String productFingerprint(String name, String category, String description, BigDecimal price,
+                                            Integer stockQuantity) {
+        return digest(String.join("\0", name, category, String.valueOf(description),
+                priceBand(price), stockBand(stockQuantity)));
+    }
+
+    public static String searchKeywords(String name, String category, String description, BigDecimal price,
+                                        Integer stockQuantity) {
+        StringBuilder keywords = new StringBuilder();
+        keywords.append(name).append(" ");
+        keywords.append(category).append(" ");
+        if (description != null) {
+            keywords.append(description).append(" ");
+        }
+        keywords.append(name.toLowerCase()).append(" ");
+        keywords.append(category.toLowerCase()).append(" ");
+        String priceBand = priceBand(price);
+        if (!priceBand.isEmpty()) {
+            keywords.append(priceBand).append(" ");
+        }
+        String stockBand = stockBand(stockQuantity);
+        if (!stockBand.isEmpty()) {
+            keywords.append(stockBand).append(" ");
+        }
+        String result = keywords.toString().trim();
+        if (result.length() > SEARCH_KEYWORDS_MAX_LENGTH) {
+            result = result.substring(0, SEARCH_KEYWORDS_MAX_LENGTH - 3) + "...";
+        }
+        return result;
+    }
+
+    public static String productDigest(String name) {
+        return processedDigest(name, PRODUCT_ITERATIONS, PRODUCT_SUBSTEPS);
+    }
+
+    public static String userFingerprint(String username) {
+        return digest(username);
+    }
+
+    public static String userDigest(String username) {
+        return processedDigest(username, USER_ITERATIONS, USER_SUBSTEPS);
+    }
+
+    public static String orderFingerprint(long id) {
+        return digest(Long.toString(id));
+    }
+
+    public static String orderDigest(long id) {
+        return processedDigest(Long.toString(id), ORDER_ITERATIONS, 0);
+    }
+
+    private static String priceBand(BigDecimal price) {
+        if (price == null) {
+            return "";
+        }
+        if (price.compareTo(new BigDecimal("50")) < 0) {
+            return "budget affordable cheap";
+        }
+        return price.compareTo(new BigDecimal("200")) < 0 ? "mid-range moderate" : "premium expensive luxury";
+    }
+
+    private static String stockBand(Integer stockQuantity) {
+        if (stockQuantity == null) {
+            return "";
+        }
+        if (stockQuantity > 50) {
+            return "in-stock available";
+        }
+        return stockQuantity > 0 ? "limited stock" : "out-of-stock";
+    }
+
+    private static String processedDigest(String key, int iterations, int substeps) {
+        StringBuilder processed = new StringBuilder(key).append("_processed_").append(iterations - 1);
+        for (int j = 0; j < substeps; j++) {
+            processed.append("_subprocessed_").append(j);
+        }
+        return digest(processed.toString());
+    }
+
+    // First 64 bits of the SHA-256, as 16 hex digits
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
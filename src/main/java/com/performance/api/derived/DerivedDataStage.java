@@ -0,0 +1,293 @@
+package com.performance.api.derived;
+
+import com.performance.api.datasource.WorkloadClass;
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import com.performance.api.entity.Order;
+import com.performance.api.entity.Product;
+import com.performance.api.entity.User;
+import com.performance.api.event.EntityChangedEvent;
+import com.performance.api.footprint.FootprintRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the derived columns of products, users and orders (DerivedData) up to date, so reads
+ * return them as stored instead of recomputing them per entity and per request.
+ *
+ * Runs after a create or update commits, on a single background thread; changes to the same row
+ * that arrive before it is derived are coalesced. The row is locked and its inputs fingerprinted;
+ * if the fingerprint matches the one the columns were derived from, nothing is written. Otherwise
+ * the columns are recomputed and an update event is published, so response caches, validators and
+ * the replica pick them up like any other write. That event brings the row back here once more,
+ * where its fingerprint now matches.
+ *
+ * Rows written without events (the startup seeders, older snapshots) are backfilled on startup,
+ * before the caches and the replica are rebuilt from the database.
+ *
+ * Publishes app.derived.computations{entity,result} and app.derived.pending.
+ */
+@Component
+public class DerivedDataStage {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivedDataStage.class);
+
+    private static final Map<Class<?>, Derivation> DERIVATIONS = Map.of(
+            Product.class, Derivation.PRODUCT,
+            User.class, Derivation.USER,
+            Order.class, Derivation.ORDER);
+
+    private final DataSource dataSource;
+
+    private final Cache cache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int backfillBatchSize;
+
+    private final Set<Key> pending = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService deriver =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("derived-data-"));
+
+    public DerivedDataStage(WorkloadPools pools,
+                            EntityManagerFactory entityManagerFactory,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${performance.derived.backfill-batch-size:500}") int backfillBatchSize,
+                            FootprintRegistry footprints, MeterRegistry meterRegistry) {
+        this.dataSource = pools.get(Target.PRIMARY, WorkloadClass.BULK);
+        this.cache = entityManagerFactory.getCache();
+        this.eventPublisher = eventPublisher;
+        this.backfillBatchSize = backfillBatchSize;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("app.derived.pending", pending, Set::size).register(meterRegistry);
+        footprints.register("DerivedDataStage.pending", FootprintRegistry.Kind.BUFFER, () -> pending);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Derivation derivation = DERIVATIONS.get(event.entityType());
+        if (derivation == null || event.change() == EntityChangedEvent.Change.DELETED) {
+            return;
+        }
+        Key key = new Key(derivation, event.id());
+        if (pending.add(key)) {
+            deriver.execute(() -> {
+                // Removed before reading, so a write committing meanwhile queues the row again
+                pending.remove(key);
+                derive(key);
+            });
+        }
+    }
+
+    // Before the listeners that reset caches and rebuild the replica, so they see the derived columns
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        for (Derivation derivation : Derivation.values()) {
+            try {
+                backfill(derivation);
+            } catch (SQLException e) {
+                // Reads return null derived columns until the row is written or the next start
+                log.error("Backfilling derived data of {} failed", derivation.table, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deriver.shutdownNow();
+    }
+
+    private void derive(Key key) {
+        Derivation derivation = key.derivation();
+        String result;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(derivation.select("id = ? FOR UPDATE"));
+             PreparedStatement update = connection.prepareStatement(derivation.update())) {
+            connection.setAutoCommit(false);
+            select.setLong(1, key.id());
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    result = "missing";
+                } else {
+                    String fingerprint = derivation.fingerprint(row);
+                    if (fingerprint.equals(row.getString(2))) {
+                        result = "unchanged";
+                    } else {
+                        derivation.bind(update, row, fingerprint, LocalDateTime.now());
+                        // Evicted before the write as well as after the commit: a second-level cache
+                        // entry loaded from the old row and put back while the update is uncommitted
+                        // is dropped by the second eviction, rather than outliving the write
+                        cache.evict(derivation.entityType, key.id());
+                        update.executeUpdate();
+                        result = "computed";
+                    }
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            // Left as derived from the previous inputs until the row is written again
+            log.error("Deriving data for {} {} failed", derivation.table, key.id(), e);
+            result = "failed";
+        }
+        meterRegistry.counter("app.derived.computations", "entity", derivation.table, "result", result).increment();
+        if ("computed".equals(result)) {
+            cache.evict(derivation.entityType, key.id());
+            eventPublisher.publishEvent(EntityChangedEvent.updated(derivation.entityType, key.id()));
+        }
+    }
+
+    private void backfill(Derivation derivation) throws SQLException {
+        long started = System.nanoTime();
+        long derived = 0;
+        long lastId = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(derivation.select(
+                     "id > ? AND derived_from IS NULL ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE"));
+             PreparedStatement update = connection.prepareStatement(derivation.update())) {
+            connection.setAutoCommit(false);
+            int batch;
+            do {
+                select.setLong(1, lastId);
+                select.setInt(2, backfillBatchSize);
+                batch = 0;
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        batch++;
+                        lastId = rows.getLong(1);
+                        // updated_at is left alone: to readers the row has held these values all along
+                        derivation.bind(update, rows, derivation.fingerprint(rows), null);
+                        update.addBatch();
+                    }
+                }
+                if (batch > 0) {
+                    update.executeBatch();
+                }
+                connection.commit();
+                derived += batch;
+            } while (batch == backfillBatchSize);
+        }
+        if (derived > 0) {
+            meterRegistry.counter("app.derived.computations", "entity", derivation.table, "result", "backfilled")
+                    .increment(derived);
+            log.info("Backfilled derived data of {} {} in {} ms", derived, derivation.table,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private record Key(Derivation derivation, Long id) {
+    }
+
+    // Rows are selected as id, derived_from, then the inputs
+    private enum Derivation {
+
+        PRODUCT(Product.class, "products", ", name, category, description, price, stock_quantity",
+                "search_keywords = ?, processed_digest = ?") {
+            @Override
+            String fingerprint(ResultSet row) throws SQLException {
+                return DerivedData.productFingerprint(row.getString(3), row.getString(4), row.getString(5),
+                        row.getBigDecimal(6), row.getObject(7, Integer.class));
+            }
+
+            @Override
+            void bindValues(PreparedStatement update, ResultSet row) throws SQLException {
+                update.setString(1, DerivedData.searchKeywords(row.getString(3), row.getString(4), row.getString(5),
+                        row.getBigDecimal(6), row.getObject(7, Integer.class)));
+                update.setString(2, DerivedData.productDigest(row.getString(3)));
+            }
+        },
+
+        USER(User.class, "users", ", username", "processed_digest = ?") {
+            @Override
+            String fingerprint(ResultSet row) throws SQLException {
+                return DerivedData.userFingerprint(row.getString(3));
+            }
+
+            @Override
+            void bindValues(PreparedStatement update, ResultSet row) throws SQLException {
+                update.setString(1, DerivedData.userDigest(row.getString(3)));
+            }
+        },
+
+        ORDER(Order.class, "orders", "", "processed_digest = ?") {
+            @Override
+            String fingerprint(ResultSet row) throws SQLException {
+                return DerivedData.orderFingerprint(row.getLong(1));
+            }
+
+            @Override
+            void bindValues(PreparedStatement update, ResultSet row) throws SQLException {
+                update.setString(1, DerivedData.orderDigest(row.getLong(1)));
+            }
+        };
+
+        final Class<?> entityType;
+
+        final String table;
+
+        final String inputs;
+
+        final String values;
+
+        final int valueCount;
+
+        Derivation(Class<?> entityType, String table, String inputs, String values) {
+            this.entityType = entityType;
+            this.table = table;
+            this.inputs = inputs;
+            this.values = values;
+            this.valueCount = values.split(",").length;
+        }
+
+        abstract String fingerprint(ResultSet row) throws SQLException;
+
+        abstract void bindValues(PreparedStatement update, ResultSet row) throws SQLException;
+
+        String select(String where) {
+            return "SELECT id, derived_from" + inputs + " FROM " + table + " WHERE " + where;
+        }
+
+        String update() {
+            return "UPDATE " + table + " SET " + values + ", derived_from = ?, updated_at = COALESCE(?, updated_at)"
+                    + " WHERE id = ?";
+        }
+
+        // A null updatedAt leaves updated_at as it is
+        void bind(PreparedStatement update, ResultSet row, String fingerprint, LocalDateTime updatedAt)
+                throws SQLException {
+            bindValues(update, row);
+            update.setString(valueCount + 1, fingerprint);
+            update.setTimestamp(valueCount + 2, updatedAt == null ? null : Timestamp.valueOf(updatedAt));
+            update.setLong(valueCount + 3, row.getLong(1));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.performance.api.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.performance.api.compression.CompressedText;
+import com.performance.api.compression.CompressedTextConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
@@ -55,10 +58,20 @@ public class Order {
     @JsonManagedReference("order-items")
     private List<OrderItem> orderItems = new ArrayList<>();
     
-    // Performance issue: Large object in memory
+    // Stored and held deflated; inflated only when read through the getter
     @Lob
+    @Convert(converter = CompressedTextConverter.class)
     @Column(name = "order_notes")
-    private String orderNotes;
+    private CompressedText orderNotes;
+
+    // Written by DerivedDataStage after commit, never through the entity
+    @Column(name = "processed_digest", length = 16, insertable = false, updatable = false)
+    private String processedDigest;
+    
+    // Fingerprint of the inputs the derived columns were computed from; null until first derived
+    @JsonIgnore
+    @Column(name = "derived_from", length = 16, insertable = false, updatable = false)
+    private String derivedFrom;
     
     public Order() {}
     
@@ -68,7 +81,7 @@ public class Order {
         this.status = status;
         this.orderDate = LocalDateTime.now();
         // Temporarily disabled for testing
-        // this.orderNotes = generateLargeOrderNotes();
+        // this.orderNotes = CompressedText.of(generateLargeOrderNotes());
     }
     
     // Performance issue: Method that creates memory leak
@@ -154,14 +167,22 @@ public class Order {
     }
     
     public String getOrderNotes() {
-        return orderNotes;
+        return orderNotes == null ? null : orderNotes.text();
     }
     
     public void setOrderNotes(String orderNotes) {
-        this.orderNotes = orderNotes;
+        this.orderNotes = CompressedText.of(orderNotes);
     }
     
     public enum OrderStatus {
         PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
     }
+    
+    public String getProcessedDigest() {
+        return processedDigest;
+    }
+    
+    public String getDerivedFrom() {
+        return derivedFrom;
+    }
 }
@@ -0,0 +1,66 @@
+package com.performance.api.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Orders and revenue per hour of order date and status. Kept up to date by OrderRollups in the
+ * same transaction as the order write, never through this entity.
+ */
+@Entity
+@Table(name = "order_rollups")
+@IdClass(OrderRollup.Key.class)
+public class OrderRollup {
+    
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Order.OrderStatus status;
+    
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal revenue;
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private LocalDateTime bucketStart;
+        
+        private Order.OrderStatus status;
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(bucketStart, key.bucketStart) && status == key.status;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketStart, status);
+        }
+    }
+}
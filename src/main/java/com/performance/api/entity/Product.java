@@ -1,11 +1,14 @@
 package com.performance.api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,6 +19,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product {
     
     @Id
@@ -50,7 +55,9 @@ public class Product {
     private LocalDateTime updatedAt;
     
     // Performance issue: Eager loading of order items
+    // Cached as ids; items are inserted by product_id, so order writes evict this region (SecondLevelCacheEviction)
     @OneToMany(mappedBy = "product", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonManagedReference("product-items")
     private List<OrderItem> orderItems = new ArrayList<>();
     
@@ -60,9 +67,19 @@ public class Product {
     private String productImages;
     
     // Performance issue: Unnecessary field that's always loaded
-    @Column(name = "search_keywords")
+    // Derived from name, category, description and the price and stock bands (DerivedData)
+    @Column(name = "search_keywords", insertable = false, updatable = false)
     @Size(max = 255)
     private String searchKeywords;
+
+    // Written by DerivedDataStage after commit, never through the entity
+    @Column(name = "processed_digest", length = 16, insertable = false, updatable = false)
+    private String processedDigest;
+    
+    // Fingerprint of the inputs the derived columns were computed from; null until first derived
+    @JsonIgnore
+    @Column(name = "derived_from", length = 16, insertable = false, updatable = false)
+    private String derivedFrom;
     
     public Product() {}
     
@@ -180,7 +197,11 @@ public class Product {
         return searchKeywords;
     }
     
-    public void setSearchKeywords(String searchKeywords) {
-        this.searchKeywords = searchKeywords;
+    public String getProcessedDigest() {
+        return processedDigest;
+    }
+    
+    public String getDerivedFrom() {
+        return derivedFrom;
     }
 }
@@ -1,10 +1,15 @@
 package com.performance.api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.performance.api.compression.CompressedText;
+import com.performance.api.compression.CompressedTextConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,6 +19,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User {
     
     @Id
@@ -54,10 +61,20 @@ public class User {
     @JsonManagedReference("user-orders")
     private List<Order> orders = new ArrayList<>();
     
-    // Performance issue: Large object in memory
+    // Stored and held deflated; inflated only when read through the getter
     @Lob
+    @Convert(converter = CompressedTextConverter.class)
     @Column(name = "profile_data")
-    private String profileData;
+    private CompressedText profileData;
+
+    // Written by DerivedDataStage after commit, never through the entity
+    @Column(name = "processed_digest", length = 16, insertable = false, updatable = false)
+    private String processedDigest;
+    
+    // Fingerprint of the inputs the derived columns were computed from; null until first derived
+    @JsonIgnore
+    @Column(name = "derived_from", length = 16, insertable = false, updatable = false)
+    private String derivedFrom;
     
     public User() {}
     
@@ -68,7 +85,7 @@ public class User {
         this.lastName = lastName;
         // Performance issue: Creating large profile data
         // Temporarily disabled for testing
-        // this.profileData = generateLargeProfileData();
+        // this.profileData = CompressedText.of(generateLargeProfileData());
     }
     
     // Performance issue: Method that creates memory leak
@@ -146,10 +163,18 @@ public class User {
     }
     
     public String getProfileData() {
-        return profileData;
+        return profileData == null ? null : profileData.text();
     }
     
     public void setProfileData(String profileData) {
-        this.profileData = profileData;
+        this.profileData = CompressedText.of(profileData);
+    }
+    
+    public String getProcessedDigest() {
+        return processedDigest;
+    }
+    
+    public String getDerivedFrom() {
+        return derivedFrom;
     }
 }
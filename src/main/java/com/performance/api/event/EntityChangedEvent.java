@@ -0,0 +1,42 @@
+package com.performance.api.event;
+
+import com.performance.api.entity.Order;
+import com.performance.api.entity.Product;
+import com.performance.api.entity.User;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by the services whenever an entity is created, updated or deleted. Listeners that
+ * derive state from the data (HTTP validators, caches) react after the transaction commits.
+ */
+public record EntityChangedEvent(Class<?> entityType, Long id, Change change) {
+
+    // Products, orders and users all serialize order items; deleting a user cascades to its orders
+    private static final Map<Class<?>, List<Class<?>>> AFFECTED_TYPES = Map.of(
+            Product.class, List.of(Product.class),
+            Order.class, List.of(Order.class, Product.class, User.class),
+            User.class, List.of(User.class, Order.class, Product.class));
+
+    // Entity types whose reads (and representations) can change with this write
+    public List<Class<?>> affectedTypes() {
+        return AFFECTED_TYPES.getOrDefault(entityType, List.of(entityType));
+    }
+
+    public enum Change {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static EntityChangedEvent created(Class<?> entityType, Long id) {
+        return new EntityChangedEvent(entityType, id, Change.CREATED);
+    }
+
+    public static EntityChangedEvent updated(Class<?> entityType, Long id) {
+        return new EntityChangedEvent(entityType, id, Change.UPDATED);
+    }
+
+    public static EntityChangedEvent deleted(Class<?> entityType, Long id) {
+        return new EntityChangedEvent(entityType, id, Change.DELETED);
+    }
+}
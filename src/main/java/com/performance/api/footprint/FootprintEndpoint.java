@@ -0,0 +1,26 @@
+package com.performance.api.footprint;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/footprint - registered caches, indexes and buffers with entry count and estimated size.
+ */
+@Component
+@Endpoint(id = "footprint")
+public class FootprintEndpoint {
+
+    private final FootprintRegistry registry;
+
+    public FootprintEndpoint(FootprintRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> collections() {
+        return registry.report();
+    }
+}
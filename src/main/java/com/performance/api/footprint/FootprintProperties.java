@@ -0,0 +1,66 @@
+package com.performance.api.footprint;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "performance.footprint")
+public class FootprintProperties {
+
+    private boolean enabled = true;
+
+    // How often every registered collection is measured for the app.footprint.* gauges
+    private Duration sampleInterval = Duration.ofMinutes(1);
+
+    // Elements whose size is measured per collection; the rest are assumed to be alike
+    private int sampleSize = 32;
+
+    // Consecutive measurements without a shrink, ending larger than they started, that count as steady growth
+    private int growthSamples = 10;
+
+    // Steady growth only raises app.footprint.growth.warning once the estimated size is past this
+    private DataSize growthThreshold = DataSize.ofMegabytes(64);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public void setSampleInterval(Duration sampleInterval) {
+        this.sampleInterval = sampleInterval;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    public int getGrowthSamples() {
+        return growthSamples;
+    }
+
+    public void setGrowthSamples(int growthSamples) {
+        this.growthSamples = growthSamples;
+    }
+
+    public DataSize getGrowthThreshold() {
+        return growthThreshold;
+    }
+
+    public void setGrowthThreshold(DataSize growthThreshold) {
+        this.growthThreshold = growthThreshold;
+    }
+}
@@ -0,0 +1,243 @@
+package com.performance.api.footprint;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived in-process collections (caches, indexes, buffers) with their entry count and an
+ * estimated retained size, so a collection that keeps old gen growing shows up by name.
+ *
+ * The size is extrapolated from up to {@code performance.footprint.sample-size} elements, spread
+ * over the collection, measured with {@link ObjectSizeEstimator}. Every sample interval each
+ * collection is measured for app.footprint.entries and app.footprint.size{name, kind}; one whose
+ * entry count has not shrunk over the last growth-samples measurements, has grown over them and
+ * is past growth-threshold sets app.footprint.growth.warning{name, kind} to 1 and is logged.
+ */
+@Component
+public class FootprintRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(FootprintRegistry.class);
+
+    private final FootprintProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sampler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("footprint-"));
+
+    public FootprintRegistry(FootprintProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Tracks the collection {@code contents} returns. It is iterated without the owner's lock, so
+     * an owner that guards its collection with one should return a copy taken under it.
+     */
+    public void register(String name, Kind kind, Supplier<? extends Collection<?>> contents) {
+        Tracked collection = new Tracked(name, kind, contents);
+        if (tracked.putIfAbsent(name, collection) != null) {
+            throw new IllegalStateException("Footprint already registered: " + name);
+        }
+        Gauge.builder("app.footprint.entries", collection, Tracked::entries)
+                .tags("name", name, "kind", kind.tag())
+                .register(meterRegistry);
+        Gauge.builder("app.footprint.size", collection, Tracked::bytes)
+                .tags("name", name, "kind", kind.tag())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("app.footprint.growth.warning", collection, Tracked::warning)
+                .tags("name", name, "kind", kind.tag())
+                .register(meterRegistry);
+    }
+
+    // Measured now rather than at the last sample, largest first
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        tracked.values().stream()
+                .map(collection -> Map.entry(collection, measure(collection)))
+                .sorted(Comparator.comparingLong((Map.Entry<Tracked, Measurement> entry) -> entry.getValue().bytes()).reversed())
+                .forEach(entry -> {
+                    Tracked collection = entry.getKey();
+                    Measurement measurement = entry.getValue();
+                    Map<String, Object> details = new LinkedHashMap<>();
+                    details.put("kind", collection.kind.tag());
+                    details.put("entries", measurement.entries());
+                    details.put("estimatedBytes", measurement.bytes());
+                    details.put("sampledEntries", measurement.sampled());
+                    details.put("growing", collection.growing);
+                    report.put(collection.name, details);
+                });
+        return report;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.isEnabled()) {
+            long interval = properties.getSampleInterval().toMillis();
+            sampler.scheduleWithFixedDelay(this::sampleAll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    private void sampleAll() {
+        for (Tracked collection : tracked.values()) {
+            try {
+                collection.record(measure(collection));
+            } catch (RuntimeException e) {
+                log.warn("Could not measure footprint of {}", collection.name, e);
+            }
+        }
+    }
+
+    private Measurement measure(Tracked collection) {
+        Collection<?> contents = collection.contents.get();
+        int entries = contents.size();
+        // The collection's own table or array
+        long bytes = 40 + (long) entries * (contents instanceof List<?> ? 4 : 36);
+        if (entries == 0) {
+            return new Measurement(0, bytes, 0);
+        }
+        int wanted = Math.min(entries, Math.max(1, properties.getSampleSize()));
+        int stride = entries / wanted;
+        ObjectSizeEstimator estimator = new ObjectSizeEstimator();
+        long sampledBytes = 0;
+        int sampled = 0;
+        // Unsynchronized collections (the services' static lists) may change underneath; extrapolate from what was read
+        try {
+            if (contents instanceof List<?> list && contents instanceof RandomAccess) {
+                for (; sampled < wanted; sampled++) {
+                    sampledBytes += estimator.estimate(list.get(sampled * stride));
+                }
+            } else {
+                int index = 0;
+                for (Object element : contents) {
+                    if (sampled == wanted) {
+                        break;
+                    }
+                    if (index++ % stride == 0) {
+                        sampledBytes += estimator.estimate(element);
+                        sampled++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("{} changed while sampled", collection.name, e);
+        }
+        if (sampled > 0) {
+            bytes += sampledBytes * entries / sampled;
+        }
+        return new Measurement(entries, bytes, sampled);
+    }
+
+    public enum Kind {
+
+        // Entries kept to avoid recomputing or reloading them
+        CACHE,
+
+        // Lookup structures keyed by something else the application holds
+        INDEX,
+
+        // Work queued for later processing
+        BUFFER;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record Measurement(int entries, long bytes, int sampled) {
+    }
+
+    private final class Tracked {
+
+        private final String name;
+
+        private final Kind kind;
+
+        private final Supplier<? extends Collection<?>> contents;
+
+        // Entry counts of the latest scheduled measurements, oldest first
+        private final Deque<Integer> history = new ArrayDeque<>();
+
+        private volatile int entries;
+
+        private volatile long bytes;
+
+        private volatile boolean growing;
+
+        Tracked(String name, Kind kind, Supplier<? extends Collection<?>> contents) {
+            this.name = name;
+            this.kind = kind;
+            this.contents = contents;
+        }
+
+        int entries() {
+            return entries;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        int warning() {
+            return growing ? 1 : 0;
+        }
+
+        // Only called from the sampler thread
+        void record(Measurement measurement) {
+            entries = measurement.entries();
+            bytes = measurement.bytes();
+            history.addLast(measurement.entries());
+            while (history.size() > Math.max(2, properties.getGrowthSamples())) {
+                history.removeFirst();
+            }
+            boolean wasGrowing = growing;
+            growing = history.size() == Math.max(2, properties.getGrowthSamples()) && isMonotonic()
+                    && bytes > properties.getGrowthThreshold().toBytes();
+            if (growing && !wasGrowing) {
+                log.warn("{} ({}) has grown over the last {} samples to {} entries, about {} MB", name, kind.tag(),
+                        history.size(), entries, bytes / (1024 * 1024));
+            }
+        }
+
+        private boolean isMonotonic() {
+            int previous = -1;
+            for (int count : history) {
+                if (count < previous) {
+                    return false;
+                }
+                previous = count;
+            }
+            return history.getLast() > history.getFirst();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.performance.api.footprint;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the heap retained by an object graph by walking its fields, with the layout of a
+ * 64-bit HotSpot JVM using compressed oops (12-byte headers, 4-byte references, 8-byte alignment).
+ *
+ * JDK classes can't be read by reflection without --add-opens, so strings, arrays, collections and
+ * maps are measured through their public API, and other JDK objects by their declared fields only.
+ * Strings are assumed to be Latin-1 (compact). Classes, threads, class loaders and Hibernate's
+ * session and factory internals are shared rather than retained and are not counted; its cache
+ * entries are. Each estimate starts afresh: an object is counted once per root, so what several
+ * sampled roots share is counted in each of them and the extrapolated total is an upper bound
+ * rather than an undercount.
+ */
+final class ObjectSizeEstimator {
+
+    private static final int HEADER = 12;
+
+    private static final int ARRAY_HEADER = 16;
+
+    private static final int REFERENCE = 4;
+
+    // Safety net per root, for graphs that reach far beyond it (a loaded entity's associations)
+    private static final int MAX_OBJECTS = 100_000;
+
+    private static final Map<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final Deque<Object> pending = new ArrayDeque<>();
+
+    /**
+     * Bytes retained by {@code root} and what it reaches.
+     */
+    long estimate(Object root) {
+        long bytes = 0;
+        int measured = 0;
+        visited.clear();
+        push(root);
+        while (!pending.isEmpty() && measured++ < MAX_OBJECTS) {
+            bytes += measure(pending.pop());
+        }
+        pending.clear();
+        return bytes;
+    }
+
+    private void push(Object object) {
+        if (object != null && !isShared(object.getClass()) && visited.add(object)) {
+            pending.push(object);
+        }
+    }
+
+    private long measure(Object object) {
+        Class<?> type = object.getClass();
+        if (object instanceof String string) {
+            return align(HEADER + 12) + align(ARRAY_HEADER + string.length());
+        }
+        if (type.isArray()) {
+            return measureArray(object, type.getComponentType());
+        }
+        if (isJdk(type)) {
+            if (object instanceof Collection<?> collection) {
+                forEachElement(collection);
+                return align(HEADER + 28) + (long) collection.size() * entryBytes(collection);
+            }
+            if (object instanceof Map<?, ?> map) {
+                forEachEntry(map);
+                // Hash node plus its slot in the table
+                return align(HEADER + 36) + (long) map.size() * (32 + REFERENCE);
+            }
+            return layout(type).shallowBytes();
+        }
+        Layout layout = layout(type);
+        for (Field field : layout.references()) {
+            try {
+                push(field.get(object));
+            } catch (IllegalAccessException e) {
+                // Not accessible after all; count the reference only
+            }
+        }
+        return layout.shallowBytes();
+    }
+
+    private long measureArray(Object array, Class<?> componentType) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER + (long) length * primitiveBytes(componentType));
+        }
+        for (int i = 0; i < length; i++) {
+            push(Array.get(array, i));
+        }
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    // Concurrently modified collections may throw while iterated; what was reached so far counts
+    private void forEachElement(Collection<?> collection) {
+        try {
+            for (Object element : collection) {
+                push(element);
+            }
+        } catch (RuntimeException e) {
+            // ConcurrentModificationException, or an index race in an unsynchronized list
+        }
+    }
+
+    private void forEachEntry(Map<?, ?> map) {
+        try {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                push(entry.getKey());
+                push(entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            // As above
+        }
+    }
+
+    // A slot in the backing array for lists and deques, a hash node otherwise
+    private static int entryBytes(Collection<?> collection) {
+        return collection instanceof List<?> || collection instanceof Deque<?> ? REFERENCE : 32 + REFERENCE;
+    }
+
+    private static boolean isShared(Class<?> type) {
+        if (type == Class.class || Thread.class.isAssignableFrom(type) || ClassLoader.class.isAssignableFrom(type)
+                || type.isEnum()) {
+            return true;
+        }
+        String name = type.getName();
+        return name.startsWith("org.hibernate.") && !name.startsWith("org.hibernate.collection.")
+                && !name.startsWith("org.hibernate.cache.");
+    }
+
+    private static boolean isJdk(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+    }
+
+    private static Layout layout(Class<?> type) {
+        return LAYOUTS.computeIfAbsent(type, ObjectSizeEstimator::newLayout);
+    }
+
+    private static Layout newLayout(Class<?> type) {
+        long bytes = HEADER;
+        List<Field> references = new ArrayList<>();
+        boolean readable = !isJdk(type);
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                if (field.getType().isPrimitive()) {
+                    bytes += primitiveBytes(field.getType());
+                } else {
+                    bytes += REFERENCE;
+                    if (readable && !isJdk(current) && field.trySetAccessible()) {
+                        references.add(field);
+                    }
+                }
+            }
+        }
+        return new Layout(align(bytes), references);
+    }
+
+    private static int primitiveBytes(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private record Layout(long shallowBytes, List<Field> references) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.performance.api.footprint;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers each Hibernate second-level cache region (see ehcache.xml) as a footprint cache.
+ *
+ * Ehcache keeps a region's entries serialized in its off-heap tier and reports no entry count
+ * through JCache, so every measurement copies the region's values out, deserializing the off-heap
+ * ones, and sizes their heap form. That is what a region would cost on the heap, not the off-heap
+ * bytes it reserves; the copy is bounded by the region's size limits.
+ */
+@Component
+public class SecondLevelCacheFootprint {
+
+    public SecondLevelCacheFootprint(EntityManagerFactory entityManagerFactory, FootprintRegistry footprints) {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(RegionFactory.class);
+        if (regionFactory instanceof JCacheRegionFactory jcache) {
+            CacheManager cacheManager = jcache.getCacheManager();
+            for (String region : cacheManager.getCacheNames()) {
+                footprints.register("SecondLevelCache." + region, FootprintRegistry.Kind.CACHE,
+                        () -> values(cacheManager.getCache(region)));
+            }
+        }
+    }
+
+    // Entries expired or evicted while iterated come back without a value
+    private static List<Object> values(Cache<Object, Object> cache) {
+        List<Object> values = new ArrayList<>();
+        if (cache != null) {
+            for (Cache.Entry<Object, Object> entry : cache) {
+                if (entry != null && entry.getValue() != null) {
+                    values.add(entry.getValue());
+                }
+            }
+        }
+        return values;
+    }
+}
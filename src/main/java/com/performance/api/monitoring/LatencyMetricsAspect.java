@@ -0,0 +1,107 @@
+package com.performance.api.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every controller endpoint, service method and repository method.
+ */
+@Aspect
+@Component
+public class LatencyMetricsAspect {
+
+    // Read by ResponseSerializationInterceptor to time message conversion after the handler returned
+    static final String HANDLER_RETURNED_AT = LatencyMetricsAspect.class.getName() + ".handlerReturnedAt";
+
+    private static final String REPOSITORY_PACKAGE = "com.performance.api.repository";
+
+    private final MethodTimer methodTimer;
+
+    private final SlowQueryLog slowQueryLog;
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public LatencyMetricsAspect(MethodTimer methodTimer, SlowQueryLog slowQueryLog) {
+        this.methodTimer = methodTimer;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Around("within(com.performance.api.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        var sample = methodTimer.start();
+        String outcome = Outcome.SERVER_ERROR.name();
+        Throwable error = null;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = result instanceof ResponseEntity<?> response
+                    ? Outcome.forStatus(response.getStatusCode().value()).name()
+                    : Outcome.SUCCESS.name();
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            methodTimer.stop(sample, MethodTimer.CONTROLLER, joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                    joinPoint.getSignature().getName(), outcome, error);
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null) {
+                attributes.setAttribute(HANDLER_RETURNED_AT, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+    }
+
+    @Around("within(com.performance.api.service..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        var sample = methodTimer.start();
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            methodTimer.stop(sample, MethodTimer.SERVICE, joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                    joinPoint.getSignature().getName(), error == null ? "SUCCESS" : "ERROR", error);
+        }
+    }
+
+    // Repository+ also matches the inherited CRUD methods (findAll, findById, save)
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        var sample = methodTimer.start();
+        String repository = repositoryName(joinPoint.getTarget());
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            long elapsed = methodTimer.stop(sample, MethodTimer.REPOSITORY, repository,
+                    joinPoint.getSignature().getName(), error == null ? "SUCCESS" : "ERROR", error);
+            slowQueryLog.record(repository, ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    joinPoint.getArgs(), elapsed);
+        }
+    }
+
+    private String repositoryName(Object target) {
+        return repositoryNames.computeIfAbsent(target.getClass(), type -> {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getPackageName().startsWith(REPOSITORY_PACKAGE)) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
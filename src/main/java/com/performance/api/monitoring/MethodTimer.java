@@ -0,0 +1,64 @@
+package com.performance.api.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Records app.controller/app.service/app.repository timers with a shared tag layout, so a
+ * slow endpoint can be broken down by the service and repository calls it made.
+ * Histogram and SLO buckets are configured per prefix under management.metrics.distribution.
+ */
+@Component
+public class MethodTimer {
+
+    public static final String CONTROLLER = "app.controller.duration";
+    public static final String SERVICE = "app.service.duration";
+    public static final String REPOSITORY = "app.repository.duration";
+
+    private final MeterRegistry meterRegistry;
+
+    public MethodTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public long stop(Timer.Sample sample, String metric, String component, String method,
+                     String outcome, Throwable error) {
+        return sample.stop(Timer.builder(metric)
+                .tags(Tags.of(
+                        "class", component,
+                        "method", method,
+                        "endpoint", RequestEndpoints.current(),
+                        "outcome", outcome,
+                        "exception", error == null ? "none" : error.getClass().getSimpleName()))
+                .register(meterRegistry));
+    }
+
+    // For private service helpers that the aspect cannot intercept
+    public <T> T time(String component, String method, Supplier<T> work) {
+        Timer.Sample sample = start();
+        Throwable error = null;
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            stop(sample, SERVICE, component, method, error == null ? "SUCCESS" : "ERROR", error);
+        }
+    }
+
+    public void run(String component, String method, Runnable work) {
+        time(component, method, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
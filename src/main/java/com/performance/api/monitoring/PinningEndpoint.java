@@ -0,0 +1,35 @@
+package com.performance.api.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/pinning - where virtual threads blocked while pinned to their carrier, per site.
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinningEndpoint {
+
+    private final VirtualThreadPinning pinning;
+
+    public PinningEndpoint(VirtualThreadPinning pinning) {
+        this.pinning = pinning;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sites() {
+        return pinning.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        pinning.reset();
+    }
+}
@@ -0,0 +1,36 @@
+package com.performance.api.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Resolves the low-cardinality endpoint name ("GET /api/products/{id}") used to tag metrics.
+ */
+public final class RequestEndpoints {
+
+    public static final String NONE = "none";
+
+    private RequestEndpoints() {
+    }
+
+    // Endpoint of the request bound to the current thread, or "none" for startup and executor threads
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return of(servletAttributes.getRequest());
+        }
+        return NONE;
+    }
+
+    public static String of(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            // Not yet dispatched (or no handler matched): fall back to a bounded value
+            return request.getMethod() + " UNMAPPED";
+        }
+        return request.getMethod() + " " + pattern;
+    }
+}
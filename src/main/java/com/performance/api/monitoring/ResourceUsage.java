@@ -0,0 +1,106 @@
+package com.performance.api.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes allocated and CPU time consumed on behalf of one request, summed over the request
+ * thread and any executor tasks it submitted. Backed by the HotSpot per-thread counters.
+ */
+public final class ResourceUsage {
+
+    private static final ThreadLocal<ResourceUsage> CURRENT = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    // Resolved once the handler mapping has run; tasks are only submitted after that point
+    private volatile String endpoint = RequestEndpoints.NONE;
+
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private final LongAdder cpuNanos = new LongAdder();
+
+    // The request itself plus every submitted task still pending; totals are final at zero
+    private final AtomicInteger participants = new AtomicInteger(1);
+
+    // On the calling thread: HotSpot keeps no per-thread counters for virtual threads (they read -1)
+    public static boolean isSupported() {
+        return THREADS != null && THREADS.getCurrentThreadCpuTime() != -1;
+    }
+
+    public static ResourceUsage current() {
+        return CURRENT.get();
+    }
+
+    // Binds usage to the calling thread and returns what was bound before, for restore()
+    public static ResourceUsage bind(ResourceUsage usage) {
+        ResourceUsage previous = CURRENT.get();
+        CURRENT.set(usage);
+        return previous;
+    }
+
+    public static void restore(ResourceUsage previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(THREADS.getCurrentThreadAllocatedBytes(), THREADS.getCurrentThreadCpuTime());
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long cpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public void retain() {
+        participants.incrementAndGet();
+    }
+
+    /**
+     * @return true when this was the last participant, i.e. the totals are complete
+     */
+    public boolean release() {
+        return participants.decrementAndGet() == 0;
+    }
+
+    void add(long bytes, long cpu) {
+        allocatedBytes.add(bytes);
+        cpuNanos.add(cpu);
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isCurrentThreadCpuTimeSupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+        return threads;
+    }
+
+    /**
+     * Counter values of the current thread at one point in time.
+     */
+    public record Snapshot(long allocatedBytes, long cpuNanos) {
+
+        public Snapshot until(Snapshot end) {
+            return new Snapshot(end.allocatedBytes - allocatedBytes, end.cpuNanos - cpuNanos);
+        }
+    }
+}
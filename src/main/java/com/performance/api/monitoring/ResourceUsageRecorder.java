@@ -0,0 +1,45 @@
+package com.performance.api.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes per-endpoint allocation and CPU metrics.
+ *
+ * app.endpoint.allocated / app.endpoint.cpu are running totals split by where the work ran
+ * (request thread or executor), so work finishing after the response is still attributed.
+ * app.request.allocated / app.request.cpu are per-request distributions.
+ */
+@Component
+public class ResourceUsageRecorder {
+
+    private final MeterRegistry meterRegistry;
+
+    public ResourceUsageRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void contribute(ResourceUsage usage, ResourceUsage.Snapshot delta, String source) {
+        usage.add(delta.allocatedBytes(), delta.cpuNanos());
+        meterRegistry.counter("app.endpoint.allocated", "endpoint", usage.endpoint(), "thread", source)
+                .increment(delta.allocatedBytes());
+        meterRegistry.counter("app.endpoint.cpu", "endpoint", usage.endpoint(), "thread", source)
+                .increment(delta.cpuNanos() / 1e9);
+    }
+
+    public void complete(ResourceUsage usage) {
+        DistributionSummary.builder("app.request.allocated")
+                .baseUnit("bytes")
+                .tag("endpoint", usage.endpoint())
+                .register(meterRegistry)
+                .record(usage.allocatedBytes());
+        Timer.builder("app.request.cpu")
+                .tag("endpoint", usage.endpoint())
+                .register(meterRegistry)
+                .record(usage.cpuNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,41 @@
+package com.performance.api.monitoring;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Charges allocation and CPU of executor tasks to the request that submitted them. A task
+ * that outlives its request records the per-request totals when it finishes.
+ */
+@Component
+public class ResourceUsageTaskDecorator implements TaskDecorator {
+
+    private final ResourceUsageRecorder recorder;
+
+    public ResourceUsageTaskDecorator(ResourceUsageRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        ResourceUsage usage = ResourceUsage.current();
+        if (usage == null) {
+            return task;
+        }
+        usage.setEndpoint(RequestEndpoints.current());
+        usage.retain();
+        return () -> {
+            ResourceUsage previous = ResourceUsage.bind(usage);
+            ResourceUsage.Snapshot start = ResourceUsage.snapshot();
+            try {
+                task.run();
+            } finally {
+                recorder.contribute(usage, start.until(ResourceUsage.snapshot()), "executor");
+                ResourceUsage.restore(previous);
+                if (usage.release()) {
+                    recorder.complete(usage);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.performance.api.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the gap between the controller method returning and postHandle, which for
+ * ResponseEntity handlers is the HTTP message conversion (JSON serialization) of the body.
+ */
+@Component
+public class ResponseSerializationInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponseSerializationInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        Object returnedAt = request.getAttribute(LatencyMetricsAspect.HANDLER_RETURNED_AT);
+        if (returnedAt instanceof Long start) {
+            Timer.builder("app.response.serialization")
+                    .tag("endpoint", RequestEndpoints.of(request))
+                    .tag("content_type", String.valueOf(response.getContentType()))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
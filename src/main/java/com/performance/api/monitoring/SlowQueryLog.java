@@ -0,0 +1,74 @@
+package com.performance.api.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * Logs repository calls slower than performance.monitoring.slow-query-threshold together
+ * with their JPQL and bind parameters.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private final long thresholdNanos;
+
+    private final MeterRegistry meterRegistry;
+
+    public SlowQueryLog(@Value("${performance.monitoring.slow-query-threshold:250ms}") Duration threshold,
+                        MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String repository, Method method, Object[] args, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        meterRegistry.counter("app.repository.slow", "class", repository, "method", method.getName()).increment();
+
+        Query query = AnnotationUtils.findAnnotation(method, Query.class);
+        String statement = query != null ? query.value() : "(no @Query, derived from " + method.getName() + ")";
+        log.warn("Slow query {}.{} took {} ms on {}: {} | params: {}",
+                repository, method.getName(), Duration.ofNanos(elapsedNanos).toMillis(),
+                RequestEndpoints.current(), statement, describe(method, args));
+    }
+
+    private String describe(Method method, Object[] args) {
+        if (args == null || args.length == 0) {
+            return "none";
+        }
+        Parameter[] parameters = method.getParameters();
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < args.length; i++) {
+            Param param = i < parameters.length ? parameters[i].getAnnotation(Param.class) : null;
+            String name = param != null ? param.value() : (i < parameters.length ? parameters[i].getName() : "arg" + i);
+            joiner.add(name + "=" + abbreviate(args[i]));
+        }
+        return joiner.toString();
+    }
+
+    private String abbreviate(Object value) {
+        // Entities passed to save() carry LOB fields of several megabytes
+        if (value instanceof Collection<?> collection) {
+            return collection.getClass().getSimpleName() + "[size=" + collection.size() + "]";
+        }
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+}
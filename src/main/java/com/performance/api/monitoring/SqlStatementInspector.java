@@ -0,0 +1,15 @@
+package com.performance.api.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook invoked for every SQL statement it prepares; feeds the open {@link SqlStatementScope}.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementScope.record(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,34 @@
+package com.performance.api.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "performance.sql")
+public class SqlStatementProperties {
+
+    // A statement repeated this many times within one request is reported as a likely N+1
+    private int repeatedStatementThreshold = 3;
+
+    // Maximum statements per endpoint, keyed like "[GET /api/products/{id}]"
+    private Map<String, Integer> budgets = new LinkedHashMap<>();
+
+    public int getRepeatedStatementThreshold() {
+        return repeatedStatementThreshold;
+    }
+
+    public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    public Map<String, Integer> getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(Map<String, Integer> budgets) {
+        this.budgets = budgets;
+    }
+}
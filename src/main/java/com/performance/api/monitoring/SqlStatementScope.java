@@ -0,0 +1,75 @@
+package com.performance.api.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements prepared by Hibernate on the current thread while the scope is open, plus those
+ * that code running plain JDBC reports through {@link #record}. Scopes nest, so a test helper can
+ * wrap a MockMvc call that also runs the request filter.
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementScope parent;
+
+    // Statements are compared with their '?' placeholders, so the same query with different
+    // bind parameters counts as a repetition - the signature of an N+1 loop
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+    private int count;
+
+    private SqlStatementScope(SqlStatementScope parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementScope open() {
+        SqlStatementScope scope = new SqlStatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static SqlStatementScope current() {
+        return CURRENT.get();
+    }
+
+    // Called by SqlStatementInspector, and by code preparing plain JDBC statements the inspector never sees
+    public static void record(String sql) {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            synchronized (scope) {
+                scope.count++;
+                scope.statements.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    // Statements executed at least minRepetitions times, most repeated first
+    public synchronized Map<String, Integer> repeated(int minRepetitions) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statements.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minRepetitions)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    public synchronized Map<String, Integer> statements() {
+        return new LinkedHashMap<>(statements);
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.performance.api.monitoring;
+
+import com.performance.api.footprint.FootprintRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Per-endpoint SQL statement counts, N+1 suspects and budget violations, fed by the
+ * request filter and served by the sqlstatements actuator endpoint.
+ */
+@Component
+public class SqlStatementStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementStatistics.class);
+
+    // Bounds the memory used for remembered N+1 suspects per endpoint
+    private static final int MAX_SUSPECTS_PER_ENDPOINT = 20;
+
+    private final SqlStatementProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, EndpointStatistics> endpoints = new ConcurrentHashMap<>();
+
+    public SqlStatementStatistics(SqlStatementProperties properties, FootprintRegistry footprints,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        footprints.register("SqlStatementStatistics.endpoints", FootprintRegistry.Kind.INDEX, endpoints::values);
+    }
+
+    public void record(String endpoint, SqlStatementScope scope) {
+        int count = scope.count();
+        Map<String, Integer> repeated = scope.repeated(properties.getRepeatedStatementThreshold());
+
+        DistributionSummary.builder("app.sql.statements")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(count);
+
+        EndpointStatistics statistics = endpoints.computeIfAbsent(endpoint, key -> new EndpointStatistics());
+        statistics.requests.incrementAndGet();
+        statistics.statements.addAndGet(count);
+        statistics.maxStatements.accumulate(count);
+        statistics.lastStatements.set(count);
+
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("app.sql.repeated", "endpoint", endpoint).increment();
+            repeated.forEach((sql, times) -> {
+                if (statistics.suspects.size() < MAX_SUSPECTS_PER_ENDPOINT || statistics.suspects.containsKey(sql)) {
+                    statistics.suspects.merge(sql, times, Math::max);
+                }
+            });
+            log.warn("Possible N+1 on {}: {} statements, repeated: {}", endpoint, count, repeated);
+        }
+
+        Integer budget = properties.getBudgets().get(endpoint);
+        if (budget != null && count > budget) {
+            meterRegistry.counter("app.sql.budget.exceeded", "endpoint", endpoint).increment();
+            statistics.budgetViolations.incrementAndGet();
+            log.warn("SQL statement budget exceeded on {}: {} statements, budget {}", endpoint, count, budget);
+        }
+    }
+
+    public boolean exceedsBudget(String endpoint, int count) {
+        Integer budget = properties.getBudgets().get(endpoint);
+        return budget != null && count > budget;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, statistics) -> {
+            long requests = statistics.requests.get();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", requests);
+            entry.put("avgStatements", requests == 0 ? 0 : (double) statistics.statements.get() / requests);
+            entry.put("maxStatements", statistics.maxStatements.get());
+            entry.put("lastStatements", statistics.lastStatements.get());
+            entry.put("budget", properties.getBudgets().get(endpoint));
+            entry.put("budgetViolations", statistics.budgetViolations.get());
+            entry.put("repeatedStatements", new TreeMap<>(statistics.suspects));
+            snapshot.put(endpoint, entry);
+        });
+        return snapshot;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class EndpointStatistics {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong statements = new AtomicLong();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final AtomicLong lastStatements = new AtomicLong();
+        private final AtomicLong budgetViolations = new AtomicLong();
+        private final Map<String, Integer> suspects = new ConcurrentHashMap<>();
+    }
+}
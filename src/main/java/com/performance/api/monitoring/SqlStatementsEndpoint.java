@@ -0,0 +1,32 @@
+package com.performance.api.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/sqlstatements - statement counts and repeated statements per endpoint.
+ */
+@Component
+@Endpoint(id = "sqlstatements")
+public class SqlStatementsEndpoint {
+
+    private final SqlStatementStatistics statistics;
+
+    public SqlStatementsEndpoint(SqlStatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statements() {
+        return statistics.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
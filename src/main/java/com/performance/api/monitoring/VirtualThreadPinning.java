@@ -0,0 +1,146 @@
+package com.performance.api.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, e.g. on JDBC or
+ * a lock inside a synchronized block or method. Such a thread keeps its carrier (one of as many
+ * as there are cores) for as long as it is blocked.
+ *
+ * Listens to the JDK's jdk.VirtualThreadPinned flight recorder events at or above
+ * performance.monitoring.pinning-threshold. Events are grouped by site, the first frame outside
+ * the JDK; the first occurrence of a site is logged with its stack. Publishes the
+ * app.virtual.pinned{site} timer and serves the sites on the pinning actuator endpoint.
+ * Only active with spring.threads.virtual.enabled on Java 21.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinning {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinning.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final String APPLICATION_PACKAGE = "com.performance.";
+
+    // Bounds the sites remembered and the site tag's values; later sites are counted as "other"
+    private static final int MAX_SITES = 50;
+
+    private static final int MAX_STACK_FRAMES = 15;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SiteStatistics> sites = new ConcurrentHashMap<>();
+
+    private final RecordingStream recording = new RecordingStream();
+
+    public VirtualThreadPinning(@Value("${performance.monitoring.pinning-threshold:20ms}") Duration threshold,
+                                MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        sites.forEach((site, statistics) -> {
+            long count = statistics.count.get();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", count);
+            entry.put("avgMillis", count == 0 ? 0 : statistics.totalNanos.get() / 1e6 / count);
+            entry.put("maxMillis", statistics.maxNanos.get() / 1e6);
+            entry.put("applicationFrame", statistics.applicationFrame);
+            entry.put("stack", statistics.stack);
+            snapshot.put(site, entry);
+        });
+        return snapshot;
+    }
+
+    public void reset() {
+        sites.clear();
+    }
+
+    @PreDestroy
+    public void close() {
+        recording.close();
+    }
+
+    private void record(RecordedEvent event) {
+        List<String> stack = new ArrayList<>();
+        String site = null;
+        String applicationFrame = null;
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        for (RecordedFrame frame : stackTrace == null ? List.<RecordedFrame>of() : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            String location = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            if (stack.size() < MAX_STACK_FRAMES) {
+                stack.add(location);
+            }
+            if (site == null && !isJdk(type)) {
+                site = type + "." + frame.getMethod().getName();
+            }
+            if (applicationFrame == null && type.startsWith(APPLICATION_PACKAGE)) {
+                applicationFrame = location;
+            }
+        }
+        if (site == null) {
+            site = "jdk";
+        }
+        if (sites.size() >= MAX_SITES && !sites.containsKey(site)) {
+            site = "other";
+        }
+        Duration duration = event.getDuration();
+        String finalSite = site;
+        String finalApplicationFrame = applicationFrame;
+        SiteStatistics statistics = sites.computeIfAbsent(site, key -> {
+            log.warn("Virtual thread pinned for {} ms at {} (first occurrence of this site): {}",
+                    duration.toMillis(), finalSite, String.join(" <- ", stack));
+            return new SiteStatistics(finalApplicationFrame, stack);
+        });
+        statistics.count.incrementAndGet();
+        statistics.totalNanos.addAndGet(duration.toNanos());
+        statistics.maxNanos.accumulate(duration.toNanos());
+        Timer.builder("app.virtual.pinned").tag("site", site).register(meterRegistry).record(duration);
+    }
+
+    private static boolean isJdk(String type) {
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")
+                || type.startsWith("javax.");
+    }
+
+    private static final class SiteStatistics {
+        private final String applicationFrame;
+        private final List<String> stack;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        SiteStatistics(String applicationFrame, List<String> stack) {
+            this.applicationFrame = applicationFrame;
+            this.stack = stack;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.performance.api.reactive;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+
+import java.io.IOException;
+
+/**
+ * Stops the http.server.requests observation when the response completes.
+ *
+ * ServerHttpObservationFilter leaves a request that went async to be stopped on its async
+ * dispatch, but this adapter completes responses without dispatching, so the observation would
+ * never be stopped: no timer sample, and http.server.requests.active growing by one per request.
+ */
+class ObservedServletHttpHandlerAdapter extends ServletHttpHandlerAdapter {
+
+    private final ObservationRegistry observationRegistry;
+
+    ObservedServletHttpHandlerAdapter(HttpHandler httpHandler, ObservationRegistry observationRegistry) {
+        super(httpHandler);
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void service(ServletRequest request, ServletResponse response) throws ServletException, IOException {
+        // Opened in scope by the filter, on this thread
+        Observation observation = observationRegistry.getCurrentObservation();
+        super.service(request, response);
+        if (observation != null && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    observation.stop();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    observation.error(event.getThrowable());
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.performance.api.reactive;
+
+import com.performance.api.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order as /api/v2 returns it: the /api/orders representation without the order notes,
+ * which are streamed separately from GET /api/orders/{id}/notes.
+ */
+public record OrderView(Long id, Long userId, BigDecimal totalAmount, Order.OrderStatus status,
+                        LocalDateTime orderDate, LocalDateTime createdAt, LocalDateTime updatedAt,
+                        String processedDigest, List<Item> orderItems) {
+
+    public record Item(Long id, Long orderId, Long productId, Integer quantity, BigDecimal unitPrice,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, BigDecimal totalPrice) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.performance.api.reactive;
+
+import com.performance.api.entity.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * Read-only order endpoints of /api/v2. Lists are streamed as they are read: as NDJSON, one
+ * order per line, when the client accepts application/x-ndjson, otherwise as a JSON array
+ * written element by element. Either way the client's read rate paces the database reads.
+ */
+@Component
+public class ReactiveOrderHandler {
+
+    private final ReactiveOrderRepository orderRepository;
+
+    public ReactiveOrderHandler(ReactiveOrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    public Mono<ServerResponse> getAllOrders(ServerRequest request) {
+        return list(request, orderRepository.findAll());
+    }
+
+    public Mono<ServerResponse> getOrderById(ServerRequest request) {
+        Optional<Long> id = longVariable(request, "id");
+        if (id.isEmpty()) {
+            return ServerResponse.badRequest().build();
+        }
+        return orderRepository.findById(id.get())
+                .flatMap(order -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(order))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getOrdersByUserId(ServerRequest request) {
+        Optional<Long> userId = longVariable(request, "userId");
+        if (userId.isEmpty()) {
+            return ServerResponse.badRequest().build();
+        }
+        return list(request, orderRepository.findByUserId(userId.get()));
+    }
+
+    public Mono<ServerResponse> getOrdersByStatus(ServerRequest request) {
+        Order.OrderStatus status;
+        try {
+            status = Order.OrderStatus.valueOf(request.pathVariable("status"));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return list(request, orderRepository.findByStatus(status));
+    }
+
+    public Mono<ServerResponse> getOrdersByDateRange(ServerRequest request) {
+        Optional<String> startDate = request.queryParam("startDate");
+        Optional<String> endDate = request.queryParam("endDate");
+        if (startDate.isEmpty() || endDate.isEmpty()) {
+            return ServerResponse.badRequest().build();
+        }
+        try {
+            return list(request, orderRepository.findByDateRange(
+                    LocalDateTime.parse(startDate.get()), LocalDateTime.parse(endDate.get())));
+        } catch (DateTimeParseException e) {
+            return ServerResponse.badRequest().build();
+        }
+    }
+
+    private static Mono<ServerResponse> list(ServerRequest request, Flux<OrderView> orders) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(orders, OrderView.class);
+    }
+
+    private static Optional<Long> longVariable(ServerRequest request, String name) {
+        try {
+            return Optional.of(Long.valueOf(request.pathVariable(name)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.performance.api.reactive;
+
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.entity.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order reads for /api/v2 over R2DBC, on the primary H2 database.
+ *
+ * An order and its items come from one join, ordered by order id, and are folded into an
+ * OrderView as the rows arrive; rows are only read as fast as the subscriber requests views,
+ * so a list is never held in memory as a whole. The connection pool is private to this
+ * repository rather than a ConnectionFactory bean, which would switch off Boot's JDBC data
+ * source auto-configuration; it publishes the r2dbc.pool.* meters tagged name=orders-v2.
+ *
+ * r2dbc-h2 runs the embedded database's work on the subscribing thread: nothing waits on
+ * network I/O, and what is saved over /api/orders is the thread held per request for as long
+ * as its response takes to load and write.
+ */
+@Component
+public class ReactiveOrderRepository {
+
+    private static final String JDBC_H2_PREFIX = "jdbc:h2:";
+
+    private static final String SELECT = "SELECT o.id, o.user_id, o.total_amount, o.status, o.order_date,"
+            + " o.created_at, o.updated_at, o.processed_digest, i.id AS item_id, i.product_id, i.quantity,"
+            + " i.unit_price, i.created_at AS item_created_at, i.updated_at AS item_updated_at"
+            + " FROM orders o LEFT JOIN order_items i ON i.order_id = o.id";
+
+    // Items of an order are adjacent; their own order is left to the join, so no sort is needed
+    private static final String ORDER_BY = " ORDER BY o.id";
+
+    private final ConnectionPool pool;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveOrderRepository(WorkloadPools pools, DataSourceProperties primaryProperties,
+                                   @Value("${performance.reactive.pool.max-size:10}") int maxSize,
+                                   MeterRegistry meterRegistry) {
+        String url = pools.primaryUrl();
+        if (!url.startsWith(JDBC_H2_PREFIX)) {
+            throw new IllegalStateException("The primary database is not H2: " + url);
+        }
+        String password = primaryProperties.determinePassword();
+        H2ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url.substring(JDBC_H2_PREFIX.length()))
+                .username(primaryProperties.determineUsername())
+                .password(password == null ? "" : password)
+                .build());
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("orders-v2")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .build());
+        new ConnectionPoolMetrics(pool, "orders-v2", Tags.empty()).bindTo(meterRegistry);
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    public Flux<OrderView> findAll() {
+        return orders(databaseClient.sql(SELECT + ORDER_BY));
+    }
+
+    public Mono<OrderView> findById(Long id) {
+        return orders(databaseClient.sql(SELECT + " WHERE o.id = :id").bind("id", id)).next();
+    }
+
+    public Flux<OrderView> findByUserId(Long userId) {
+        return orders(databaseClient.sql(SELECT + " WHERE o.user_id = :userId" + ORDER_BY).bind("userId", userId));
+    }
+
+    public Flux<OrderView> findByStatus(Order.OrderStatus status) {
+        return orders(databaseClient.sql(SELECT + " WHERE o.status = :status" + ORDER_BY).bind("status", status.name()));
+    }
+
+    // Inclusive on both ends, like GET /api/orders/date-range
+    public Flux<OrderView> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return orders(databaseClient.sql(SELECT + " WHERE o.order_date BETWEEN :startDate AND :endDate" + ORDER_BY)
+                .bind("startDate", startDate)
+                .bind("endDate", endDate));
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    private static Flux<OrderView> orders(DatabaseClient.GenericExecuteSpec query) {
+        return query.map((row, metadata) -> OrderRow.of(row))
+                .all()
+                .bufferUntilChanged(OrderRow::id)
+                .map(ReactiveOrderRepository::toView);
+    }
+
+    private static OrderView toView(List<OrderRow> rows) {
+        OrderRow first = rows.get(0);
+        List<OrderView.Item> items = new ArrayList<>(rows.size());
+        for (OrderRow row : rows) {
+            if (row.item() != null) {
+                items.add(row.item());
+            }
+        }
+        return new OrderView(first.id(), first.userId(), first.totalAmount(), first.status(), first.orderDate(),
+                first.createdAt(), first.updatedAt(), first.processedDigest(), items);
+    }
+
+    // One row of the join; item is null for an order without items
+    private record OrderRow(Long id, Long userId, BigDecimal totalAmount, Order.OrderStatus status,
+                            LocalDateTime orderDate, LocalDateTime createdAt, LocalDateTime updatedAt,
+                            String processedDigest, OrderView.Item item) {
+
+        static OrderRow of(Row row) {
+            Long id = row.get("id", Long.class);
+            Long itemId = row.get("item_id", Long.class);
+            String status = row.get("status", String.class);
+            OrderView.Item item = null;
+            if (itemId != null) {
+                Integer quantity = row.get("quantity", Integer.class);
+                BigDecimal unitPrice = row.get("unit_price", BigDecimal.class);
+                item = new OrderView.Item(itemId, id, row.get("product_id", Long.class), quantity, unitPrice,
+                        row.get("item_created_at", LocalDateTime.class), row.get("item_updated_at", LocalDateTime.class),
+                        quantity == null || unitPrice == null ? null : unitPrice.multiply(BigDecimal.valueOf(quantity)));
+            }
+            return new OrderRow(id, row.get("user_id", Long.class), row.get("total_amount", BigDecimal.class),
+                    status == null ? null : Order.OrderStatus.valueOf(status), row.get("order_date", LocalDateTime.class),
+                    row.get("created_at", LocalDateTime.class), row.get("updated_at", LocalDateTime.class),
+                    row.get("processed_digest", String.class), item);
+        }
+    }
+}
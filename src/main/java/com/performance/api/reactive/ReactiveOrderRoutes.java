@@ -0,0 +1,78 @@
+package com.performance.api.reactive;
+
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.pattern.PathPattern;
+
+/**
+ * Serves /api/v2 with WebFlux functional endpoints, next to the Spring MVC API on the same
+ * servlet container and port. The routes run behind their own servlet using the Servlet async
+ * and non-blocking I/O APIs: the request thread is released as soon as the response is
+ * subscribed, and writes resume when the client can take more. Codecs use the application's
+ * ObjectMapper, so both APIs render values the same way.
+ *
+ * Only reads are served here; orders are written through /api/orders.
+ */
+@Configuration
+public class ReactiveOrderRoutes {
+
+    public static final String PATH_PREFIX = "/api/v2";
+
+    @Bean
+    public RouterFunction<ServerResponse> orderRoutesV2(ReactiveOrderHandler handler) {
+        // Relative to the servlet's mapping; date-range comes before {id}, which would match it too
+        return RouterFunctions.route()
+                .GET("/orders", handler::getAllOrders)
+                .GET("/orders/date-range", handler::getOrdersByDateRange)
+                .GET("/orders/user/{userId}", handler::getOrdersByUserId)
+                .GET("/orders/status/{status}", handler::getOrdersByStatus)
+                .GET("/orders/{id}", handler::getOrderById)
+                .filter((request, next) -> {
+                    tagObservation(request);
+                    return next.handle(request);
+                })
+                .build();
+    }
+
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> apiV2Servlet(
+            RouterFunction<ServerResponse> orderRoutesV2, ObjectProvider<CodecCustomizer> codecCustomizers,
+            ObservationRegistry observationRegistry) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> codecCustomizers.orderedStream()
+                        .forEach(customizer -> customizer.customize(configurer)))
+                .build();
+        ServletHttpHandlerAdapter servlet = new ObservedServletHttpHandlerAdapter(
+                RouterFunctions.toHttpHandler(orderRoutesV2, strategies), observationRegistry);
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(servlet, PATH_PREFIX + "/*");
+        registration.setName("apiV2");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    // Gives http.server.requests the matched route as its uri tag instead of UNKNOWN
+    private static void tagObservation(ServerRequest request) {
+        Object pattern = request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE).orElse(null);
+        if (!(pattern instanceof PathPattern pathPattern)) {
+            return;
+        }
+        HttpServletRequest servletRequest = ServerHttpRequestDecorator.getNativeRequest(request.exchange().getRequest());
+        ServerHttpObservationFilter.findObservationContext(servletRequest)
+                .ifPresent(context -> context.setPathPattern(PATH_PREFIX + pathPattern.getPatternString()));
+    }
+}
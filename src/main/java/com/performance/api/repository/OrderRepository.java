@@ -2,17 +2,21 @@ package com.performance.api.repository;
 
 import com.performance.api.entity.Order;
 import com.performance.api.entity.Order.OrderStatus;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends ProjectionRepository<Order, Long> {
     
     List<Order> findByUserId(Long userId);
     
@@ -38,10 +42,6 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.totalAmount > :minAmount")
     List<Order> findOrdersByMinAmount(@Param("minAmount") BigDecimal minAmount);
     
-    // Performance issue: Query that uses LIKE without proper indexing
-    @Query("SELECT o FROM Order o WHERE o.orderNotes LIKE :keyword")
-    List<Order> findOrdersByNotesKeyword(@Param("keyword") String keyword);
-    
     // Performance issue: Query that loads all orders with their notes (large data)
     @Query("SELECT o FROM Order o WHERE o.orderNotes IS NOT NULL")
     List<Order> findOrdersWithNotes();
@@ -53,4 +53,35 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Performance issue: Query that loads all orders for a user without pagination
     @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.orderDate DESC")
     List<Order> findUserOrdersOrderedByDate(@Param("userId") Long userId);
+    
+    // SELECT ... FOR UPDATE: concurrent writers of one order take its rollup contribution one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+    
+    // Validator for conditional GETs: reads version columns only, not the order and its items
+    @Query("SELECT new com.performance.api.repository.VersionStamp(o.id, o.updatedAt, MAX(oi.updatedAt), COUNT(oi)) " +
+           "FROM Order o LEFT JOIN o.orderItems oi WHERE o.id = :id GROUP BY o.id, o.updatedAt")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+    
+    // Sparse-fieldset variants of the read queries, selecting only the requested columns (?fields=)
+    default List<Map<String, Object>> findProjectedByUserId(Long userId, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.equal(root.get("userId"), userId), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedByStatus(OrderStatus status, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.equal(root.get("status"), status), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedByDateRange(LocalDateTime startDate, LocalDateTime endDate, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.between(root.get("orderDate"), startDate, endDate), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedByMinAmount(BigDecimal minAmount, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.gt(root.get("totalAmount"), minAmount), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedWithNotes(Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.isNotNull(root.get("orderNotes")), fields);
+    }
 }
@@ -0,0 +1,21 @@
+package com.performance.api.repository;
+
+import com.performance.api.entity.Order;
+import com.performance.api.entity.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollup.Key> {
+    
+    // Hourly buckets in [from, to), oldest first; a null status matches all
+    @Query("SELECT r FROM OrderRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to"
+            + " AND (:status IS NULL OR r.status = :status) AND r.orderCount <> 0 ORDER BY r.bucketStart, r.status")
+    List<OrderRollup> findBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                  @Param("status") Order.OrderStatus status);
+}
@@ -1,17 +1,24 @@
 package com.performance.api.repository;
 
 import com.performance.api.entity.Product;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends ProjectionRepository<Product, Long> {
     
+    // Result ids cached in the query cache, invalidated by Hibernate on any write to the table
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByCategory(String category);
     
     List<Product> findByNameContaining(String name);
@@ -48,4 +55,32 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Performance issue: Query that loads all products with their images (large data)
     @Query("SELECT p FROM Product p WHERE p.productImages IS NOT NULL")
     List<Product> findProductsWithImages();
+    
+    // Validator for conditional GETs: reads version columns only, not the product and its items
+    @Query("SELECT new com.performance.api.repository.VersionStamp(p.id, p.updatedAt, MAX(oi.updatedAt), COUNT(oi)) " +
+           "FROM Product p LEFT JOIN p.orderItems oi WHERE p.id = :id GROUP BY p.id, p.updatedAt")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+    
+    // Sparse-fieldset variants of the read queries, selecting only the requested columns (?fields=)
+    default List<Map<String, Object>> findProjectedByCategory(String category, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.equal(root.get("category"), category), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedByKeyword(String keyword, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.or(
+                cb.like(root.get("name"), "%" + keyword + "%"),
+                cb.like(root.get("description"), "%" + keyword + "%")), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.between(root.get("price"), minPrice, maxPrice), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedAvailable(Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.gt(root.get("stockQuantity"), 0), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedWithImages(Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.isNotNull(root.get("productImages")), fields);
+    }
 }
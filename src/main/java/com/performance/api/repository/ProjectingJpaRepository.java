@@ -0,0 +1,106 @@
+package com.performance.api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Base class of every repository (see {@code repositoryBaseClass} on the application class). Not named
+ * ProjectionRepositoryImpl on purpose: Spring Data would take that for a custom fragment implementation.
+ */
+public class ProjectingJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements ProjectionRepository<T, ID> {
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+
+    private final EntityManager entityManager;
+
+    public ProjectingJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjected(Specification<T> spec, Collection<String> fields, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(getDomainClass());
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : selectableFields(root.getModel(), fields)) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(ID id, Collection<String> fields) {
+        String idAttribute = entityInformation.getIdAttribute().getName();
+        List<Map<String, Object>> rows = findProjected((root, query, cb) -> cb.equal(root.get(idAttribute), id), fields);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjectedByIds(Collection<ID> ids, Collection<String> fields) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String idAttribute = entityInformation.getIdAttribute().getName();
+        return findProjected((root, query, cb) -> root.get(idAttribute).in(ids), fields);
+    }
+
+    private Set<String> selectableFields(EntityType<T> entityType, Collection<String> fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(entityInformation.getIdAttribute().getName());
+        for (String field : fields) {
+            Attribute<? super T, ?> attribute;
+            try {
+                attribute = entityType.getAttribute(field);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field '" + field + "' for " + entityType.getName());
+            }
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                throw new IllegalArgumentException("Field '" + field + "' of " + entityType.getName()
+                        + " is an association and cannot be projected");
+            }
+            selected.add(field);
+        }
+        return selected;
+    }
+}
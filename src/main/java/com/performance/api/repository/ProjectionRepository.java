@@ -0,0 +1,36 @@
+package com.performance.api.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository that can read a subset of an entity's columns. The requested fields become the
+ * SELECT list of a Criteria tuple query, so unselected columns (and the eager collections) are
+ * never read; rows come back as field-name to value maps in the requested order, always
+ * starting with the id.
+ *
+ * Only basic attributes can be selected; an unknown or association field is rejected with
+ * IllegalArgumentException.
+ */
+@NoRepositoryBean
+public interface ProjectionRepository<T, ID> extends JpaRepository<T, ID>, JpaSpecificationExecutor<T> {
+
+    List<Map<String, Object>> findProjected(Specification<T> spec, Collection<String> fields, Sort sort);
+
+    default List<Map<String, Object>> findProjected(Specification<T> spec, Collection<String> fields) {
+        return findProjected(spec, fields, Sort.unsorted());
+    }
+
+    Optional<Map<String, Object>> findProjectedById(ID id, Collection<String> fields);
+
+    // One IN query; rows in no particular order
+    List<Map<String, Object>> findProjectedByIds(Collection<ID> ids, Collection<String> fields);
+}
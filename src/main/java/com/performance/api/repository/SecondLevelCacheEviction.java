@@ -0,0 +1,46 @@
+package com.performance.api.repository;
+
+import com.performance.api.entity.Order;
+import com.performance.api.entity.Product;
+import com.performance.api.entity.User;
+import com.performance.api.event.EntityChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evictions Hibernate cannot do on its own for the second-level cache.
+ *
+ * Product and user writes go through their entities, so READ_WRITE regions are updated on commit.
+ * Order items however are linked to their product through the plain product_id column (the
+ * association is not insertable), which leaves the cached Product.orderItems collections unaware
+ * of items added or removed by order writes and by user deletes cascading to orders.
+ */
+@Component
+public class SecondLevelCacheEviction {
+
+    private static final String PRODUCT_ORDER_ITEMS = Product.class.getName() + ".orderItems";
+
+    private final Cache cache;
+
+    public SecondLevelCacheEviction(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == Order.class
+                || event.entityType() == User.class && event.change() == EntityChangedEvent.Change.DELETED) {
+            cache.evictCollectionData(PRODUCT_ORDER_ITEMS);
+        }
+    }
+
+    // Startup data is written by a CommandLineRunner without events, while requests are already served
+    @EventListener(ApplicationReadyEvent.class)
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+}
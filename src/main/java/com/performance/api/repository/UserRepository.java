@@ -1,19 +1,30 @@
 package com.performance.api.repository;
 
+import com.performance.api.entity.Order;
 import com.performance.api.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends ProjectionRepository<User, Long> {
     
+    // Result ids cached in the query cache, invalidated by Hibernate on any write to the table
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     
     // Performance issue: N+1 query problem - this will trigger additional queries for each user's orders
@@ -46,4 +57,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
                                    @Param("email") String email, 
                                    @Param("firstName") String firstName, 
                                    @Param("lastName") String lastName);
+    
+    // Validator for conditional GETs: reads version columns only, not the user, orders and items
+    @Query("SELECT new com.performance.api.repository.VersionStamp(u.id, u.updatedAt, MAX(o.updatedAt), MAX(oi.updatedAt), " +
+           "COUNT(DISTINCT o.id), COUNT(oi)) " +
+           "FROM User u LEFT JOIN u.orders o LEFT JOIN o.orderItems oi WHERE u.id = :id GROUP BY u.id, u.updatedAt")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+    
+    // Sparse-fieldset variants of the read queries, selecting only the requested columns (?fields=)
+    default List<Map<String, Object>> findProjectedByKeyword(String keyword, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.or(
+                cb.equal(root.get("username"), keyword),
+                cb.equal(root.get("email"), keyword),
+                cb.equal(root.get("firstName"), keyword),
+                cb.like(root.get("lastName"), "%" + keyword + "%")), fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedWithPendingOrders(Collection<String> fields) {
+        return findProjected((root, query, cb) -> {
+            Subquery<Long> pending = query.subquery(Long.class);
+            Root<Order> order = pending.from(Order.class);
+            pending.select(order.get("userId")).where(cb.equal(order.get("status"), Order.OrderStatus.PENDING));
+            return root.get("id").in(pending);
+        }, fields);
+    }
+    
+    default List<Map<String, Object>> findProjectedRecentByEmailDomain(String domain, LocalDateTime since, Collection<String> fields) {
+        return findProjected((root, query, cb) -> cb.and(
+                cb.like(root.get("email"), domain),
+                cb.greaterThan(root.get("createdAt"), since)), fields);
+    }
 }
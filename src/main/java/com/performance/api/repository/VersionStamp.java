@@ -0,0 +1,38 @@
+package com.performance.api.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validator for one entity representation, read with an aggregate query instead of loading the
+ * entity: its own updatedAt plus the newest updatedAt and the number of nested rows serialized
+ * with it, so added, changed and removed children all produce a different fingerprint.
+ */
+public record VersionStamp(Long id, LocalDateTime updatedAt, LocalDateTime nestedUpdatedAt, Long nestedCount) {
+
+    // Two levels of nesting (user -> orders -> items) folded into one
+    public VersionStamp(Long id, LocalDateTime updatedAt, LocalDateTime nestedUpdatedAt,
+                        LocalDateTime deepUpdatedAt, Long nestedCount, Long deepCount) {
+        this(id, updatedAt, latest(nestedUpdatedAt, deepUpdatedAt), nestedCount + deepCount);
+    }
+
+    public String fingerprint() {
+        return id + "-" + Long.toHexString(epochMillis(updatedAt)) + "-" + Long.toHexString(epochMillis(nestedUpdatedAt))
+                + "-" + nestedCount;
+    }
+
+    public long lastModified() {
+        return epochMillis(latest(updatedAt, nestedUpdatedAt));
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,187 @@
+package com.performance.api.rollup;
+
+import com.performance.api.datasource.WorkloadClass;
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import com.performance.api.entity.Order;
+import com.performance.api.entity.OrderRollup;
+import com.performance.api.repository.OrderRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Maintains the hourly order rollups (OrderRollup) and serves them at coarser granularities.
+ *
+ * Every order write adds its delta to the buckets it leaves and enters, on the caller's
+ * transaction, so the rollups commit or roll back with the order. Orders without an
+ * order date are not counted, as they are not found by date range either. Two transactions
+ * opening the same bucket at once conflict on its key; the second waits for the first to commit
+ * and then retries its delta as an update.
+ *
+ * The replica does not receive rollup changes (order events do not say which buckets an order
+ * left), so callers read them in a read-write transaction, which stays on the primary. Startup
+ * data is written without going through here, so the rollups are rebuilt from the orders once the
+ * application is ready.
+ */
+@Component
+public class OrderRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderRollups.class);
+
+    private static final String DUPLICATE_KEY = "23505";
+
+    private static final String ADD = "MERGE INTO order_rollups r USING (VALUES (CAST(? AS TIMESTAMP),"
+            + " CAST(? AS VARCHAR(20)), CAST(? AS BIGINT), CAST(? AS NUMERIC(38, 2))))"
+            + " d(bucket_start, status, order_count, revenue) ON r.bucket_start = d.bucket_start AND r.status = d.status"
+            + " WHEN MATCHED THEN UPDATE SET order_count = r.order_count + d.order_count, revenue = r.revenue + d.revenue"
+            + " WHEN NOT MATCHED THEN INSERT (bucket_start, status, order_count, revenue)"
+            + " VALUES (d.bucket_start, d.status, d.order_count, d.revenue)";
+
+    private static final String HOURLY = "SELECT DATE_TRUNC('HOUR', order_date) AS bucket_start, status,"
+            + " COUNT(*) AS order_count, SUM(total_amount) AS revenue FROM orders WHERE order_date IS NOT NULL%s"
+            + " GROUP BY DATE_TRUNC('HOUR', order_date), status";
+
+    private static final String SUBTRACT_USER = "MERGE INTO order_rollups r USING (" + HOURLY.formatted(" AND user_id = ?")
+            + ") d ON r.bucket_start = d.bucket_start AND r.status = d.status"
+            + " WHEN MATCHED THEN UPDATE SET order_count = r.order_count - d.order_count, revenue = r.revenue - d.revenue";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DataSource bulkDataSource;
+
+    private final OrderRollupRepository rollupRepository;
+
+    public OrderRollups(DataSource dataSource, WorkloadPools pools, OrderRollupRepository rollupRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.bulkDataSource = pools.get(Target.PRIMARY, WorkloadClass.BULK);
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Order order) {
+        changed(Contribution.NONE, Contribution.of(order));
+    }
+
+    // before is taken from the order as loaded, ahead of any change to it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Contribution before, Contribution after) {
+        if (before.sameBucket(after)) {
+            BigDecimal delta = after.amount().subtract(before.amount());
+            if (delta.signum() != 0) {
+                add(after, 0, delta);
+            }
+            return;
+        }
+        if (before.counted()) {
+            add(before, -1, before.amount().negate());
+        }
+        if (after.counted()) {
+            add(after, 1, after.amount());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Contribution before) {
+        changed(before, Contribution.NONE);
+    }
+
+    // Call before deleting the user, while its orders can still be read
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deletingOrdersOf(Long userId) {
+        jdbcTemplate.update(SUBTRACT_USER, userId);
+    }
+
+    // Every bucket of the granularity overlapping [from, to), in full (both ends widened to bucket
+    // boundaries), oldest first; a null status matches all
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<RollupBucket> read(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                   Order.OrderStatus status) {
+        Map<RollupBucket, RollupBucket> buckets = new TreeMap<>(
+                Comparator.comparing(RollupBucket::start).thenComparing(RollupBucket::status));
+        for (OrderRollup hour : rollupRepository.findBuckets(granularity.truncate(from), granularity.ceil(to), status)) {
+            RollupBucket bucket = new RollupBucket(granularity.truncate(hour.getBucketStart()), hour.getStatus(),
+                    hour.getOrderCount(), hour.getRevenue());
+            buckets.merge(bucket, bucket, (sum, more) -> new RollupBucket(sum.start(), sum.status(),
+                    sum.orders() + more.orders(), sum.revenue().add(more.revenue())));
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        // A bucket opened by an order write meanwhile conflicts with the rebuilt one; that write is then counted
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = bulkDataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(false);
+                statement.executeUpdate("DELETE FROM order_rollups");
+                int buckets = statement.executeUpdate("INSERT INTO order_rollups (bucket_start, status, order_count,"
+                        + " revenue) " + HOURLY.formatted(""));
+                connection.commit();
+                log.info("Rebuilt {} hourly order rollups in {} ms", buckets, (System.nanoTime() - started) / 1_000_000);
+                return;
+            } catch (SQLException e) {
+                if (attempt == 2 || !DUPLICATE_KEY.equals(e.getSQLState())) {
+                    log.error("Rebuilding order rollups failed", e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void add(Contribution bucket, long orders, BigDecimal revenue) {
+        Object[] args = {Timestamp.valueOf(bucket.hour()), bucket.status().name(), orders, revenue};
+        try {
+            jdbcTemplate.update(ADD, args);
+        } catch (DuplicateKeyException e) {
+            // Another transaction inserted the bucket first; it exists now, so this merge updates it
+            jdbcTemplate.update(ADD, args);
+        }
+    }
+
+    /**
+     * What one order adds to the rollups: its amount in the hour and status bucket it falls in.
+     */
+    public record Contribution(LocalDateTime hour, Order.OrderStatus status, BigDecimal amount) {
+
+        static final Contribution NONE = new Contribution(null, null, BigDecimal.ZERO);
+
+        public static Contribution of(Order order) {
+            if (order.getOrderDate() == null || order.getStatus() == null || order.getTotalAmount() == null) {
+                return NONE;
+            }
+            return new Contribution(RollupGranularity.HOUR.truncate(order.getOrderDate()), order.getStatus(),
+                    order.getTotalAmount());
+        }
+
+        boolean counted() {
+            return hour != null;
+        }
+
+        boolean sameBucket(Contribution other) {
+            return Objects.equals(hour, other.hour) && status == other.status;
+        }
+    }
+}
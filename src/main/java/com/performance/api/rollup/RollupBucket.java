@@ -0,0 +1,12 @@
+package com.performance.api.rollup;
+
+import com.performance.api.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Orders dated within [start, start + granularity) with the given status, and their total amount.
+ */
+public record RollupBucket(LocalDateTime start, Order.OrderStatus status, long orders, BigDecimal revenue) {
+}
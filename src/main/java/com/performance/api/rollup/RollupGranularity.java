@@ -0,0 +1,49 @@
+package com.performance.api.rollup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket sizes served from the hourly rollups; days and weeks (starting on Monday) are summed
+ * from the hours they contain when read.
+ */
+public enum RollupGranularity {
+
+    HOUR(ChronoUnit.HOURS) {
+        @Override
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(ChronoUnit.HOURS);
+        }
+    },
+
+    DAY(ChronoUnit.DAYS) {
+        @Override
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(ChronoUnit.DAYS);
+        }
+    },
+
+    WEEK(ChronoUnit.WEEKS) {
+        @Override
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    };
+
+    private final ChronoUnit length;
+
+    RollupGranularity(ChronoUnit length) {
+        this.length = length;
+    }
+
+    // Start of the bucket containing time
+    public abstract LocalDateTime truncate(LocalDateTime time);
+
+    // Start of the first bucket starting at or after time
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime start = truncate(time);
+        return start.equals(time) ? start : start.plus(1, length);
+    }
+}
@@ -1,25 +1,43 @@
 package com.performance.api.service;
 
+import com.performance.api.compression.TextColumn;
+import com.performance.api.compression.TextColumnStreams;
+import com.performance.api.datasource.Workload;
+import com.performance.api.datasource.WorkloadClass;
 import com.performance.api.entity.Order;
 import com.performance.api.entity.OrderItem;
 import com.performance.api.entity.Product;
 import com.performance.api.entity.User;
+import com.performance.api.event.EntityChangedEvent;
+import com.performance.api.footprint.FootprintRegistry;
+import com.performance.api.monitoring.MethodTimer;
 import com.performance.api.repository.OrderRepository;
 import com.performance.api.repository.OrderItemRepository;
 import com.performance.api.repository.ProductRepository;
 import com.performance.api.repository.UserRepository;
+import com.performance.api.repository.VersionStamp;
+import com.performance.api.rollup.OrderRollups;
+import com.performance.api.rollup.RollupBucket;
+import com.performance.api.rollup.RollupGranularity;
+import com.performance.api.singleflight.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 @Service
 @Transactional
@@ -37,84 +55,149 @@ public class OrderService {
     @Autowired
     private UserRepository userRepository;
     
-    // Performance issue: Fixed thread pool that can cause resource exhaustion
-    private final ExecutorService executorService = Executors.newFixedThreadPool(75);
+    @Autowired
+    private MethodTimer methodTimer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TextColumnStreams textColumnStreams;
+    
+    @Autowired
+    private OrderRollups orderRollups;
+    
+    // Performance issue: Fixed thread pool that can cause resource exhaustion (sized in ExecutorConfig)
+    @Autowired
+    @Qualifier("orderExecutor")
+    private Executor executorService;
     
     // Performance issue: Memory leak - static list that grows indefinitely
     private static final List<Order> orderCache = new ArrayList<>();
     
+    @Autowired
+    void registerFootprint(FootprintRegistry footprints) {
+        footprints.register("OrderService.orderCache", FootprintRegistry.Kind.CACHE, () -> orderCache);
+    }
+    
+    @SingleFlight(Order.class)
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         // Performance issue: N+1 query problem - loads all orders with their order items
-        List<Order> orders = orderRepository.findAll();
-        
-        // Performance issue: Unnecessary processing for each order
-        for (Order order : orders) {
-            processOrderData(order);
-        }
-        
-        return orders;
+        // The processed digest is derived once per write (DerivedDataStage), not per read
+        return orderRepository.findAll();
     }
     
+    @SingleFlight(Order.class)
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long id) {
         // Performance issue: Always loads order with order items (eager loading)
         return orderRepository.findById(id);
     }
     
+    @SingleFlight(Order.class)
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getOrderVersion(Long id) {
+        return orderRepository.findVersionStampById(id);
+    }
+    
     public Order createOrder(Order order) {
         // Performance issue: Creates large order notes for every order
-        order.setOrderNotes(generateLargeOrderNotes());
+        order.setOrderNotes(methodTimer.time("OrderService", "generateLargeOrderNotes", this::generateLargeOrderNotes));
         
         // Performance issue: Adds to static cache without cleanup
         orderCache.add(order);
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderRollups.created(saved);
+        eventPublisher.publishEvent(EntityChangedEvent.created(Order.class, saved.getId()));
+        return saved;
     }
     
     public Order updateOrder(Long id, Order orderDetails) {
         // Performance issue: Loads order with all related data
-        Order order = orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
+        // Locked, so a concurrent update or delete can't subtract the same rollup contribution
+        Order order = orderRepository.findByIdForUpdate(id).orElseThrow(() -> new RuntimeException("Order not found"));
+        OrderRollups.Contribution before = OrderRollups.Contribution.of(order);
         
         // Performance issue: Updates order notes even if not needed
-        order.setOrderNotes(generateLargeOrderNotes());
+        order.setOrderNotes(methodTimer.time("OrderService", "generateLargeOrderNotes", this::generateLargeOrderNotes));
         
         order.setUserId(orderDetails.getUserId());
         order.setTotalAmount(orderDetails.getTotalAmount());
         order.setStatus(orderDetails.getStatus());
         order.setOrderDate(orderDetails.getOrderDate());
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderRollups.changed(before, OrderRollups.Contribution.of(saved));
+        eventPublisher.publishEvent(EntityChangedEvent.updated(Order.class, id));
+        return saved;
+    }
+    
+    // Streams the notes as UTF-8 text; held as long as the client takes, hence the bulk pool
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public TextColumnStreams.Outcome streamOrderNotes(Long id, TextColumnStreams.Target target) throws SQLException, IOException {
+        return textColumnStreams.copyTo(TextColumn.ORDER_NOTES, id, target);
+    }
+    
+    @Workload(WorkloadClass.BULK)
+    public boolean replaceOrderNotes(Long id, InputStream notes) throws SQLException, IOException {
+        if (!textColumnStreams.replaceFrom(TextColumn.ORDER_NOTES, id, notes)) {
+            return false;
+        }
+        eventPublisher.publishEvent(EntityChangedEvent.updated(Order.class, id));
+        return true;
     }
     
     public void deleteOrder(Long id) {
         // Performance issue: Loads order with all related data before deletion
-        Order order = orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        // Performance issue: Processes order data before deletion
-        processOrderData(order);
+        Order order = orderRepository.findByIdForUpdate(id).orElseThrow(() -> new RuntimeException("Order not found"));
         
+        orderRollups.deleted(OrderRollups.Contribution.of(order));
         orderRepository.delete(order);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(Order.class, id));
     }
     
+    @SingleFlight(Order.class)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Long userId) {
         // Performance issue: Loads all orders with full order details
         return orderRepository.findByUserId(userId);
     }
     
+    @SingleFlight(Order.class)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByStatus(Order.OrderStatus status) {
         // Performance issue: Loads all orders with full order details
         return orderRepository.findByStatus(status);
     }
     
+    @SingleFlight(Order.class)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         // Performance issue: Loads all orders with full order details
         return orderRepository.findOrdersByDateRange(startDate, endDate);
     }
     
+    @SingleFlight(Order.class)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByMinAmount(BigDecimal minAmount) {
         // Performance issue: Loads all orders with full order details
         return orderRepository.findOrdersByMinAmount(minAmount);
     }
     
+    // Read-write on purpose: rollups are not replicated, and only read-only transactions go to the replica
+    @Workload(WorkloadClass.INTERACTIVE)
+    public List<RollupBucket> getOrderRollups(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                              Order.OrderStatus status) {
+        return orderRollups.read(granularity, from, to, status);
+    }
+    
+    @SingleFlight(Order.class)
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
     public List<Order> getOrdersWithNotes() {
         // Performance issue: Loads all orders with large notes data
         return orderRepository.findOrdersWithNotes();
@@ -137,7 +220,7 @@ public class OrderService {
         
         // Performance issue: Creates order with large notes
         Order order = new Order(userId, totalAmount, Order.OrderStatus.PENDING);
-        order.setOrderNotes(generateLargeOrderNotes());
+        order.setOrderNotes(methodTimer.time("OrderService", "generateLargeOrderNotes", this::generateLargeOrderNotes));
         
         // Performance issue: Saves order first, then items (inefficient)
         order = orderRepository.save(order);
@@ -150,9 +233,49 @@ public class OrderService {
         // Performance issue: Adds to static cache without cleanup
         orderCache.add(order);
         
+        orderRollups.created(order);
+        eventPublisher.publishEvent(EntityChangedEvent.created(Order.class, order.getId()));
         return order;
     }
     
+    // Sparse fieldsets (?fields=): only the requested columns are selected and nothing is post-processed
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllOrders(Collection<String> fields) {
+        return orderRepository.findProjected(null, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getOrderById(Long id, Collection<String> fields) {
+        return orderRepository.findProjectedById(id, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByUserId(Long userId, Collection<String> fields) {
+        return orderRepository.findProjectedByUserId(userId, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByStatus(Order.OrderStatus status, Collection<String> fields) {
+        return orderRepository.findProjectedByStatus(status, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate, Collection<String> fields) {
+        return orderRepository.findProjectedByDateRange(startDate, endDate, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByMinAmount(BigDecimal minAmount, Collection<String> fields) {
+        return orderRepository.findProjectedByMinAmount(minAmount, fields);
+    }
+    
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersWithNotes(Collection<String> fields) {
+        return orderRepository.findProjectedWithNotes(fields);
+    }
+    
     // Performance issue: Method that creates memory leak - ENHANCED
     private String generateLargeOrderNotes() {
         StringBuilder sb = new StringBuilder();
@@ -166,27 +289,11 @@ public class OrderService {
         return sb.toString();
     }
     
-    // Performance issue: Inefficient processing method
-    private void processOrderData(Order order) {
-        // Performance issue: CPU-intensive operation
-        for (int i = 0; i < 3000; i++) {
-            String processed = order.getId() + "_processed_" + i;
-            // Simulate processing
-        }
-        
-        // Performance issue: Adds to static cache without cleanup
-        orderCache.add(order);
-    }
-    
     // Performance issue: Async method that can cause resource exhaustion
+    @Workload(WorkloadClass.BULK)
     public CompletableFuture<List<Order>> getAllOrdersAsync() {
         return CompletableFuture.supplyAsync(() -> {
-            // Performance issue: CPU-intensive operation in async context
-            List<Order> orders = orderRepository.findAll();
-            for (Order order : orders) {
-                processOrderData(order);
-            }
-            return orders;
+            return orderRepository.findAll();
         }, executorService);
     }
     
@@ -1,19 +1,32 @@
 package com.performance.api.service;
 
+import com.performance.api.batch.MultiGet;
+import com.performance.api.datasource.Workload;
+import com.performance.api.datasource.WorkloadClass;
+import com.performance.api.deadline.Deadline;
 import com.performance.api.entity.Product;
+import com.performance.api.event.EntityChangedEvent;
+import com.performance.api.footprint.FootprintRegistry;
+import com.performance.api.monitoring.MethodTimer;
 import com.performance.api.repository.ProductRepository;
+import com.performance.api.repository.VersionStamp;
+import com.performance.api.singleflight.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 @Service
 @Transactional
@@ -22,38 +35,69 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     
-    // Performance issue: Fixed thread pool that can cause resource exhaustion
-    private final ExecutorService executorService = Executors.newFixedThreadPool(50);
+    @Autowired
+    private MethodTimer methodTimer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MultiGet multiGet;
+    
+    // Performance issue: Fixed thread pool that can cause resource exhaustion (sized in ExecutorConfig)
+    @Autowired
+    @Qualifier("productExecutor")
+    private Executor executorService;
     
     // Performance issue: Memory leak - static list that grows indefinitely
     private static final List<Product> productCache = new ArrayList<>();
     
+    // Not bounded here: /actuator/footprint and app.footprint.growth.warning show how far it has grown
+    @Autowired
+    void registerFootprint(FootprintRegistry footprints) {
+        footprints.register("ProductService.productCache", FootprintRegistry.Kind.CACHE, () -> productCache);
+    }
+    
+    @SingleFlight(Product.class)
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         // Performance issue: N+1 query problem - loads all products with their order items
-        List<Product> products = productRepository.findAll();
-        
-        // Performance issue: Unnecessary processing for each product
-        for (Product product : products) {
-            processProductData(product);
-        }
-        
-        return products;
+        // Search keywords and the processed digest are derived once per write (DerivedDataStage), not per read
+        return productRepository.findAll();
     }
     
+    @SingleFlight(Product.class)
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         // Performance issue: Always loads product with order items (eager loading)
         return productRepository.findById(id);
     }
     
+    // Multi-get (?ids=): one IN query for every id instead of a request per product
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        Set<Long> distinct = multiGet.ids(ids);
+        // Performance issue: Loads each product's order items (eager loading)
+        return multiGet.inRequestedOrder(distinct, productRepository.findAllById(distinct), Product::getId);
+    }
+    
+    @SingleFlight(Product.class)
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getProductVersion(Long id) {
+        return productRepository.findVersionStampById(id);
+    }
+    
     public Product createProduct(Product product) {
         // Performance issue: Creates large image data for every product
-        product.setProductImages(generateLargeImageData());
-        product.setSearchKeywords(generateSearchKeywords(product));
+        product.setProductImages(methodTimer.time("ProductService", "generateLargeImageData", this::generateLargeImageData));
         
         // Performance issue: Adds to static cache without cleanup
         productCache.add(product);
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(EntityChangedEvent.created(Product.class, saved.getId()));
+        return saved;
     }
     
     public Product updateProduct(Long id, Product productDetails) {
@@ -61,8 +105,7 @@ public class ProductService {
         Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
         
         // Performance issue: Updates image data even if not needed
-        product.setProductImages(generateLargeImageData());
-        product.setSearchKeywords(generateSearchKeywords(productDetails));
+        product.setProductImages(methodTimer.time("ProductService", "generateLargeImageData", this::generateLargeImageData));
         
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
@@ -70,19 +113,21 @@ public class ProductService {
         product.setCategory(productDetails.getCategory());
         product.setStockQuantity(productDetails.getStockQuantity());
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(Product.class, id));
+        return saved;
     }
     
     public void deleteProduct(Long id) {
         // Performance issue: Loads product with all related data before deletion
         Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
         
-        // Performance issue: Processes product data before deletion
-        processProductData(product);
-        
         productRepository.delete(product);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(Product.class, id));
     }
     
+    @SingleFlight(Product.class)
+    @Transactional(readOnly = true)
     public List<Product> searchProducts(String keyword) {
         // Performance issue: Multiple database queries instead of one optimized query
         List<Product> products = new ArrayList<>();
@@ -90,29 +135,82 @@ public class ProductService {
         products.addAll(productRepository.searchProductsByKeyword("%" + keyword + "%"));
         
         // Performance issue: Removes duplicates inefficiently
-        return removeDuplicates(products);
+        return methodTimer.time("ProductService", "removeDuplicates", () -> removeDuplicates(products));
     }
     
+    @SingleFlight(Product.class)
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
         // Performance issue: Loads all products with full order details
         return productRepository.findByCategory(category);
     }
     
+    @SingleFlight(Product.class)
+    @Transactional(readOnly = true)
     public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
         // Performance issue: Loads all products with full order details
         return productRepository.findByPriceRange(minPrice, maxPrice);
     }
     
+    @SingleFlight(Product.class)
+    @Transactional(readOnly = true)
     public List<Product> getAvailableProducts() {
         // Performance issue: Loads all products with full order details
         return productRepository.findAvailableProducts();
     }
     
+    @SingleFlight(Product.class)
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
     public List<Product> getProductsWithImages() {
         // Performance issue: Loads all products with large image data
         return productRepository.findProductsWithImages();
     }
     
+    // Sparse fieldsets (?fields=): only the requested columns are selected and nothing is post-processed
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllProducts(Collection<String> fields) {
+        return productRepository.findProjected(null, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getProductById(Long id, Collection<String> fields) {
+        return productRepository.findProjectedById(id, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductsByIds(Collection<Long> ids, Collection<String> fields) {
+        Set<Long> distinct = multiGet.ids(ids);
+        return multiGet.inRequestedOrder(distinct, productRepository.findProjectedByIds(distinct, fields), row -> (Long) row.get("id"));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchProducts(String keyword, Collection<String> fields) {
+        return productRepository.findProjectedByKeyword(keyword, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductsByCategory(String category, Collection<String> fields) {
+        return productRepository.findProjectedByCategory(category, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Collection<String> fields) {
+        return productRepository.findProjectedByPriceRange(minPrice, maxPrice, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAvailableProducts(Collection<String> fields) {
+        return productRepository.findProjectedAvailable(fields);
+    }
+    
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductsWithImages(Collection<String> fields) {
+        return productRepository.findProjectedWithImages(fields);
+    }
+    
     // Performance issue: Method that creates memory leak - ENHANCED
     private String generateLargeImageData() {
         StringBuilder sb = new StringBuilder();
@@ -126,76 +224,6 @@ public class ProductService {
         return sb.toString();
     }
     
-    // Performance issue: Inefficient string concatenation
-    private String generateSearchKeywords(Product product) {
-        // Generate reasonable search keywords within 255 character limit
-        StringBuilder keywords = new StringBuilder();
-        
-        // Add basic product info
-        keywords.append(product.getName()).append(" ");
-        keywords.append(product.getCategory()).append(" ");
-        if (product.getDescription() != null) {
-            keywords.append(product.getDescription()).append(" ");
-        }
-        
-        // Add some variations for better search
-        keywords.append(product.getName().toLowerCase()).append(" ");
-        keywords.append(product.getCategory().toLowerCase()).append(" ");
-        
-        // Add price range keywords
-        if (product.getPrice() != null) {
-            if (product.getPrice().compareTo(new BigDecimal("50")) < 0) {
-                keywords.append("budget affordable cheap ");
-            } else if (product.getPrice().compareTo(new BigDecimal("200")) < 0) {
-                keywords.append("mid-range moderate ");
-            } else {
-                keywords.append("premium expensive luxury ");
-            }
-        }
-        
-        // Add stock status
-        if (product.getStockQuantity() != null) {
-            if (product.getStockQuantity() > 50) {
-                keywords.append("in-stock available ");
-            } else if (product.getStockQuantity() > 0) {
-                keywords.append("limited stock ");
-            } else {
-                keywords.append("out-of-stock ");
-            }
-        }
-        
-        String result = keywords.toString().trim();
-        
-        // Ensure we don't exceed 255 characters
-        if (result.length() > 255) {
-            result = result.substring(0, 252) + "...";
-        }
-        
-        return result;
-    }
-    
-    // Performance issue: Inefficient processing method - ENHANCED
-    private void processProductData(Product product) {
-        // Performance issue: CPU-intensive operation - increased from 2000 to 10000 iterations
-        for (int i = 0; i < 10000; i++) {
-            String processed = product.getName() + "_processed_" + i;
-            // Simulate more CPU-intensive processing
-            for (int j = 0; j < 100; j++) {
-                processed += "_subprocessed_" + j;
-                // Additional CPU work
-                Math.sqrt(i * j + 1);
-            }
-        }
-        
-        // Performance issue: Adds to static cache without cleanup - ENHANCED
-        // Add multiple copies to make memory leak more noticeable
-        productCache.add(product);
-        productCache.add(new Product(product.getName() + "_copy1", product.getDescription(), 
-                                   product.getPrice(), product.getCategory(), product.getStockQuantity()));
-        productCache.add(new Product(product.getName() + "_copy2", product.getDescription(), 
-                                   product.getPrice(), product.getCategory(), product.getStockQuantity()));
-    }
-    
     // Performance issue: Inefficient duplicate removal
     private List<Product> removeDuplicates(List<Product> products) {
         List<Product> uniqueProducts = new ArrayList<>();
@@ -215,6 +243,7 @@ public class ProductService {
     }
     
     // Performance issue: Async method that can cause resource exhaustion - ENHANCED
+    @Workload(WorkloadClass.BULK)
     public CompletableFuture<List<Product>> getAllProductsAsync() {
         return CompletableFuture.supplyAsync(() -> {
             // Performance issue: CPU-intensive operation in async context - ENHANCED
@@ -222,7 +251,8 @@ public class ProductService {
             
             // Add more CPU-intensive work to make it more noticeable
             for (Product product : products) {
-                processProductData(product);
+                // Stops burning CPU once the caller's deadline has passed
+                Deadline.checkCurrent();
                 // Additional CPU work to make performance issues more visible
                 for (int i = 0; i < 1000; i++) {
                     // Simulate complex calculations
@@ -1,19 +1,36 @@
 package com.performance.api.service;
 
+import com.performance.api.batch.MultiGet;
+import com.performance.api.compression.TextColumn;
+import com.performance.api.compression.TextColumnStreams;
+import com.performance.api.datasource.Workload;
+import com.performance.api.datasource.WorkloadClass;
 import com.performance.api.entity.User;
+import com.performance.api.event.EntityChangedEvent;
+import com.performance.api.footprint.FootprintRegistry;
+import com.performance.api.monitoring.MethodTimer;
 import com.performance.api.repository.UserRepository;
+import com.performance.api.repository.VersionStamp;
+import com.performance.api.rollup.OrderRollups;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 @Service
 @Transactional
@@ -22,32 +39,64 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
-    // Performance issue: Fixed thread pool that can cause resource exhaustion
-    private final ExecutorService executorService = Executors.newFixedThreadPool(100);
+    @Autowired
+    private MethodTimer methodTimer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MultiGet multiGet;
+    
+    @Autowired
+    private TextColumnStreams textColumnStreams;
+    
+    @Autowired
+    private OrderRollups orderRollups;
+    
+    // Performance issue: Fixed thread pool that can cause resource exhaustion (sized in ExecutorConfig)
+    @Autowired
+    @Qualifier("userExecutor")
+    private Executor executorService;
     
     // Performance issue: Memory leak - static list that grows indefinitely
     private static final List<User> userCache = new ArrayList<>();
     
+    @Autowired
+    void registerFootprint(FootprintRegistry footprints) {
+        footprints.register("UserService.userCache", FootprintRegistry.Kind.CACHE, () -> userCache);
+    }
+    
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         // Performance issue: N+1 query problem - loads all users with their orders
-        List<User> users = userRepository.findAll();
-        
-        // Performance issue: Unnecessary processing for each user
-        for (User user : users) {
-            processUserData(user);
-        }
-        
-        return users;
+        // The processed digest is derived once per write (DerivedDataStage), not per read
+        return userRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         // Performance issue: Always loads user with orders (eager loading)
         return userRepository.findById(id);
     }
     
+    // Multi-get (?ids=): one IN query for every id instead of a request per user
+    @Transactional(readOnly = true)
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        Set<Long> distinct = multiGet.ids(ids);
+        // Performance issue: Each user's orders are loaded lazily while serializing
+        return multiGet.inRequestedOrder(distinct, userRepository.findAllById(distinct), User::getId);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getUserVersion(Long id) {
+        return userRepository.findVersionStampById(id);
+    }
+    
     public User createUser(User user) {
         // Performance issue: Creates large profile data for every user - ENHANCED
-        user.setProfileData(generateLargeProfileData());
+        user.setProfileData(methodTimer.time("UserService", "generateLargeProfileData", this::generateLargeProfileData));
         
         // Performance issue: Adds to static cache without cleanup - ENHANCED
         userCache.add(user);
@@ -57,7 +106,9 @@ public class UserService {
         userCache.add(new User(user.getUsername() + "_copy2", user.getEmail(), 
                              user.getFirstName(), user.getLastName()));
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(EntityChangedEvent.created(User.class, saved.getId()));
+        return saved;
     }
     
     public User updateUser(Long id, User userDetails) {
@@ -65,26 +116,45 @@ public class UserService {
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         
         // Performance issue: Updates profile data even if not needed
-        user.setProfileData(generateLargeProfileData());
+        user.setProfileData(methodTimer.time("UserService", "generateLargeProfileData", this::generateLargeProfileData));
         
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         user.setFirstName(userDetails.getFirstName());
         user.setLastName(userDetails.getLastName());
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(User.class, id));
+        return saved;
+    }
+    
+    // Streams the profile as UTF-8 text; held as long as the client takes, hence the bulk pool
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public TextColumnStreams.Outcome streamProfileData(Long id, TextColumnStreams.Target target) throws SQLException, IOException {
+        return textColumnStreams.copyTo(TextColumn.USER_PROFILE, id, target);
+    }
+    
+    @Workload(WorkloadClass.BULK)
+    public boolean replaceProfileData(Long id, InputStream profile) throws SQLException, IOException {
+        if (!textColumnStreams.replaceFrom(TextColumn.USER_PROFILE, id, profile)) {
+            return false;
+        }
+        eventPublisher.publishEvent(EntityChangedEvent.updated(User.class, id));
+        return true;
     }
     
     public void deleteUser(Long id) {
         // Performance issue: Loads user with all related data before deletion
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         
-        // Performance issue: Processes user data before deletion
-        processUserData(user);
-        
+        // Deleting the user cascades to its orders
+        orderRollups.deletingOrdersOf(id);
         userRepository.delete(user);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(User.class, id));
     }
     
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String keyword) {
         // Performance issue: Multiple database queries instead of one optimized query
         List<User> users = new ArrayList<>();
@@ -101,17 +171,52 @@ public class UserService {
         return new ArrayList<>(new LinkedHashSet<>(users));
     }
     
+    @Transactional(readOnly = true)
     public List<User> getUsersWithPendingOrders() {
         // Performance issue: Loads all users with full order details
         return userRepository.findUsersWithPendingOrders();
     }
     
+    @Transactional(readOnly = true)
     public List<User> getRecentUsers(String emailDomain) {
         // Performance issue: Loads all users with full order details
         java.time.LocalDateTime thirtyDaysAgo = java.time.LocalDateTime.now().minusDays(30);
         return userRepository.findRecentUsersByEmailDomain(emailDomain, thirtyDaysAgo);
     }
     
+    // Sparse fieldsets (?fields=): only the requested columns are selected and nothing is post-processed
+    @Workload(WorkloadClass.BULK)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllUsers(Collection<String> fields) {
+        return userRepository.findProjected(null, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getUserById(Long id, Collection<String> fields) {
+        return userRepository.findProjectedById(id, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUsersByIds(Collection<Long> ids, Collection<String> fields) {
+        Set<Long> distinct = multiGet.ids(ids);
+        return multiGet.inRequestedOrder(distinct, userRepository.findProjectedByIds(distinct, fields), row -> (Long) row.get("id"));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchUsers(String keyword, Collection<String> fields) {
+        return userRepository.findProjectedByKeyword(keyword, fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUsersWithPendingOrders(Collection<String> fields) {
+        return userRepository.findProjectedWithPendingOrders(fields);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRecentUsers(String emailDomain, Collection<String> fields) {
+        return userRepository.findProjectedRecentByEmailDomain(emailDomain, java.time.LocalDateTime.now().minusDays(30), fields);
+    }
+    
     // Performance issue: Method that creates memory leak - ENHANCED
     private String generateLargeProfileData() {
         StringBuilder sb = new StringBuilder();
@@ -125,26 +230,6 @@ public class UserService {
         return sb.toString();
     }
     
-    // Performance issue: Inefficient processing method - ENHANCED
-    private void processUserData(User user) {
-        // Performance issue: CPU-intensive operation - increased from 1000 to 5000 iterations
-        for (int i = 0; i < 5000; i++) {
-            String processed = user.getUsername() + "_processed_" + i;
-            // Simulate more CPU-intensive processing
-            for (int j = 0; j < 50; j++) {
-                processed += "_subprocessed_" + j;
-                // Additional CPU work
-                Math.sqrt(i * j + 1);
-            }
-        }
-        
-        // Performance issue: Adds to static cache without cleanup - ENHANCED
-        userCache.add(user);
-        // Add more copies to make memory leak more noticeable
-        userCache.add(new User(user.getUsername() + "_processed_copy", user.getEmail(), 
-                             user.getFirstName(), user.getLastName()));
-    }
-    
     // Performance issue: Inefficient duplicate removal
     private List<User> removeDuplicates(List<User> users) {
         List<User> uniqueUsers = new ArrayList<>();
@@ -164,14 +249,10 @@ public class UserService {
     }
     
     // Performance issue: Async method that can cause resource exhaustion
+    @Workload(WorkloadClass.BULK)
     public CompletableFuture<List<User>> getAllUsersAsync() {
         return CompletableFuture.supplyAsync(() -> {
-            // Performance issue: CPU-intensive operation in async context
-            List<User> users = userRepository.findAll();
-            for (User user : users) {
-                processUserData(user);
-            }
-            return users;
+            return userRepository.findAll();
         }, executorService);
     }
     
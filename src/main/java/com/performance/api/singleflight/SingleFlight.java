@@ -0,0 +1,25 @@
+package com.performance.api.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls of a service method with equal arguments share one execution: the first caller
+ * runs it, the others wait for its result (or exception) and get the same instance. Applied outside
+ * the transaction, so a waiting caller starts none. Calls made inside a running transaction are not
+ * coalesced, since they may have to see that transaction's own writes.
+ *
+ * Only for reads whose result is not modified by its callers. {@link #value()} is the entity type
+ * read: a committed write affecting it (see EntityChangedEvent.affectedTypes) stops later callers
+ * from joining a call already in flight.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    Class<?> value();
+}
@@ -0,0 +1,48 @@
+package com.performance.api.singleflight;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Coalesces calls of {@link SingleFlight} methods by method and arguments. Ordered first so it
+ * wraps the transaction, the workload binding and the service timer: only the executed call is
+ * timed, and the callers it served are counted in app.singleflight.calls.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect {
+
+    private final SingleFlightGroup group;
+
+    public SingleFlightAspect(SingleFlightGroup group) {
+        this.group = group;
+    }
+
+    // The annotation is read from the method rather than bound: binding needs the invocation exposed,
+    // which happens after an aspect ordered first
+    @Around("@annotation(com.performance.api.singleflight.SingleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        Class<?> type = method.getAnnotation(SingleFlight.class).value();
+        return group.execute(name, type, new Invocation(method, Arrays.asList(joinPoint.getArgs())), joinPoint::proceed);
+    }
+
+    // Overloads share a name but not a method
+    private record Invocation(Method method, List<Object> arguments) {
+    }
+}
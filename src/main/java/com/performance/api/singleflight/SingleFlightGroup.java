@@ -0,0 +1,131 @@
+package com.performance.api.singleflight;
+
+import com.performance.api.deadline.Deadline;
+import com.performance.api.event.EntityChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls in flight by key. A caller finding a call with an equal key in flight waits for it
+ * instead of running its own; nothing is kept once the call returns, so this is not a cache.
+ *
+ * A committed write drops the calls in flight that read a type it affects: callers arriving after
+ * it run a new call rather than share a result that may have been read before the write. Callers
+ * already waiting still get the older result, as they would have without coalescing. Calls of no
+ * entity type (keyed by a version already) are left alone.
+ * A caller with a request deadline may join a call in flight, and gives up waiting at its own
+ * deadline, but never leads one: the shared call would run under its deadline and fail for every
+ * caller once it passed. With no call in flight it runs its own, unshared.
+ * Counts app.singleflight.calls{name, result=executed|coalesced}.
+ */
+@Component
+public class SingleFlightGroup {
+
+    private final boolean enabled;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Key, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    public SingleFlightGroup(@Value("${performance.single-flight.enabled:true}") boolean enabled,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("app.singleflight.in.flight", calls, Map::size)
+                .description("Calls currently shared by concurrent callers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call}, or waits for the call in flight under the same name and key and returns
+     * its result. Either way an exception of the call is thrown to every caller. {@code type} is
+     * the entity type the call reads, or null if writes don't invalidate it.
+     */
+    public <T, E extends Throwable> T execute(String name, Class<?> type, Object key, Call<T, E> call) throws E {
+        if (!enabled) {
+            return call.run();
+        }
+        Key callKey = new Key(name, type, key);
+        if (Deadline.current() != null) {
+            CompletableFuture<Object> inFlight = calls.get(callKey);
+            if (inFlight != null) {
+                count(name, "coalesced");
+                return await(inFlight);
+            }
+            count(name, "executed");
+            return call.run();
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(callKey, flight);
+        if (inFlight != null) {
+            count(name, "coalesced");
+            return await(inFlight);
+        }
+        count(name, "executed");
+        try {
+            T result = call.run();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(callKey, flight);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        List<Class<?>> affected = event.affectedTypes();
+        calls.keySet().removeIf(key -> key.type() != null && affected.contains(key.type()));
+    }
+
+    private void count(String name, String result) {
+        Counter.builder("app.singleflight.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // The leader's exception is one its call declares (E) or an unchecked one
+    @SuppressWarnings("unchecked")
+    private static <T, E extends Throwable> T await(CompletableFuture<Object> flight) throws E {
+        Deadline deadline = Deadline.current();
+        try {
+            if (deadline == null) {
+                return (T) flight.join();
+            }
+            return (T) flight.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        } catch (CompletionException | ExecutionException e) {
+            throw (E) e.getCause();
+        } catch (TimeoutException e) {
+            throw deadline.exceeded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared call", e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Throwable> {
+
+        T run() throws E;
+    }
+
+    private record Key(String name, Class<?> type, Object key) {
+    }
+}
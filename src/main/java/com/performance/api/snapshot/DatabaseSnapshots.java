@@ -0,0 +1,139 @@
+package com.performance.api.snapshot;
+
+import com.performance.api.datasource.WorkloadClass;
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes snapshots of the primary database as a compacted H2 file database that
+ * SnapshotRestore can open directly on the next start.
+ *
+ * The primary is scripted under one read snapshot, so rows never reference rows the dump lacks,
+ * and the statements are run against a new file database as they are read. That database
+ * replaces the previous snapshot only once complete. Loading costs as much as seeding, but it
+ * happens here, on demand, instead of on every start.
+ */
+@Component
+public class DatabaseSnapshots {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseSnapshots.class);
+
+    private static final String PARTIAL_NAME = "snapshot-partial";
+
+    private static final String MEMORY_TABLE = "CREATE MEMORY TABLE ";
+
+    private static final String CACHED_TABLE = "CREATE CACHED TABLE ";
+
+    private final DataSource dataSource;
+
+    private final DataSourceProperties primaryProperties;
+
+    private final SnapshotProperties properties;
+
+    private final SnapshotRestore restore;
+
+    private final ReentrantLock writing = new ReentrantLock();
+
+    public DatabaseSnapshots(WorkloadPools pools, DataSourceProperties primaryProperties,
+                             SnapshotProperties properties, SnapshotRestore restore) {
+        this.dataSource = pools.get(Target.PRIMARY, WorkloadClass.BULK);
+        this.primaryProperties = primaryProperties;
+        this.properties = properties;
+        this.restore = restore;
+    }
+
+    // Time to readiness of this start, for comparing restored against seeded starts; also in application.ready.time
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Ready to serve traffic after {} ms ({})", event.getTimeTaken().toMillis(),
+                restore.isRestored() ? "restored from snapshot" : "fresh database");
+    }
+
+    // A lock rather than synchronized: a virtual thread blocking on JDBC inside synchronized pins its carrier
+    public Snapshot write() throws SQLException, IOException {
+        writing.lock();
+        try {
+            return writeSnapshot();
+        } finally {
+            writing.unlock();
+        }
+    }
+
+    private Snapshot writeSnapshot() throws SQLException, IOException {
+        Path directory = directory();
+        Files.createDirectories(directory);
+        Path partial = SnapshotRestore.databaseFile(directory, PARTIAL_NAME);
+        Files.deleteIfExists(partial);
+        long started = System.nanoTime();
+        try (Connection source = dataSource.getConnection();
+             Connection target = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve(PARTIAL_NAME),
+                     primaryProperties.determineUsername(), primaryProperties.determinePassword())) {
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            target.setAutoCommit(false);
+            try (Statement script = source.createStatement();
+                 ResultSet statements = script.executeQuery("SCRIPT NOSETTINGS");
+                 Statement load = target.createStatement()) {
+                while (statements.next()) {
+                    load.execute(cached(statements.getString(1)));
+                }
+            }
+            source.commit();
+            target.commit();
+            try (Statement statement = target.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+        } catch (SQLException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, SnapshotRestore.databaseFile(directory, SnapshotRestore.SNAPSHOT_NAME),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Snapshot snapshot = describe();
+        log.info("Wrote database snapshot {} ({} bytes) in {} ms", snapshot.path(), snapshot.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return snapshot;
+    }
+
+    // The current snapshot, or null if none was written yet
+    public Snapshot describe() throws IOException {
+        Path path = SnapshotRestore.databaseFile(directory(), SnapshotRestore.SNAPSHOT_NAME);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        return new Snapshot(path.toString(), Files.size(path), Files.getLastModifiedTime(path).toInstant());
+    }
+
+    private Path directory() {
+        return Path.of(properties.getDirectory()).toAbsolutePath();
+    }
+
+    // Indexes of memory tables live only in memory, so a file database would rebuild them on every open
+    private static String cached(String statement) {
+        return statement.startsWith(MEMORY_TABLE)
+                ? CACHED_TABLE + statement.substring(MEMORY_TABLE.length())
+                : statement;
+    }
+
+    public record Snapshot(String path, long size, Instant writtenAt) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.performance.api.snapshot;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * /actuator/snapshot - GET describes the current database snapshot, POST writes a new one.
+ */
+@Component
+@Endpoint(id = "snapshot")
+public class SnapshotEndpoint {
+
+    private final DatabaseSnapshots snapshots;
+
+    public SnapshotEndpoint(DatabaseSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @ReadOperation
+    public DatabaseSnapshots.Snapshot snapshot() throws IOException {
+        return snapshots.describe();
+    }
+
+    @WriteOperation
+    public DatabaseSnapshots.Snapshot write() throws SQLException, IOException {
+        return snapshots.write();
+    }
+}
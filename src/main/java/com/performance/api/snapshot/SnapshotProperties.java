@@ -0,0 +1,31 @@
+package com.performance.api.snapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "performance.snapshot")
+public class SnapshotProperties {
+
+    // Directory holding the snapshot (snapshot.mv.db) and, after a restore, the working copy (primary.mv.db)
+    private String directory = "data";
+
+    // Open a copy of the snapshot as the primary database instead of creating and seeding an in-memory one
+    private boolean restoreOnStartup = false;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public boolean isRestoreOnStartup() {
+        return restoreOnStartup;
+    }
+
+    public void setRestoreOnStartup(boolean restoreOnStartup) {
+        this.restoreOnStartup = restoreOnStartup;
+    }
+}
@@ -0,0 +1,69 @@
+package com.performance.api.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Decides at startup whether the primary database comes from a snapshot.
+ *
+ * With restore-on-startup and a snapshot present, the snapshot file is copied to a working file
+ * and the primary pools open that instead of the configured in-memory database. ddl-auto is then
+ * switched off (see HibernateConfig), and the seeding runners find the tables filled, so the node
+ * is ready as soon as the context is. Without a snapshot, startup is unchanged.
+ */
+@Component
+public class SnapshotRestore {
+
+    static final String SNAPSHOT_NAME = "snapshot";
+
+    private static final String WORKING_NAME = "primary";
+
+    private static final String DATABASE_SUFFIX = ".mv.db";
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotRestore.class);
+
+    private final String restoredUrl;
+
+    public SnapshotRestore(SnapshotProperties properties) {
+        this.restoredUrl = properties.isRestoreOnStartup() ? restore(properties) : null;
+    }
+
+    public boolean isRestored() {
+        return restoredUrl != null;
+    }
+
+    // JDBC URL of the primary database: the restored working copy if there is one, else the configured URL
+    public String primaryUrl(String configuredUrl) {
+        return restoredUrl != null ? restoredUrl : configuredUrl;
+    }
+
+    static Path databaseFile(Path directory, String name) {
+        return directory.resolve(name + DATABASE_SUFFIX);
+    }
+
+    private static String restore(SnapshotProperties properties) {
+        Path directory = Path.of(properties.getDirectory()).toAbsolutePath();
+        Path snapshot = databaseFile(directory, SNAPSHOT_NAME);
+        if (!Files.isRegularFile(snapshot)) {
+            log.info("No database snapshot at {}, starting with a fresh database", snapshot);
+            return null;
+        }
+        long started = System.nanoTime();
+        try {
+            // A copy, so the snapshot stays as it was written while this node writes to the database
+            Files.copy(snapshot, databaseFile(directory, WORKING_NAME), StandardCopyOption.REPLACE_EXISTING);
+            log.info("Restored database snapshot {} ({} bytes) in {} ms", snapshot, Files.size(snapshot),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot restore database snapshot " + snapshot, e);
+        }
+        return "jdbc:h2:file:" + directory.resolve(WORKING_NAME) + ";DB_CLOSE_ON_EXIT=FALSE";
+    }
+}
@@ -0,0 +1,354 @@
+package com.performance.api.synthetic;
+
+import com.performance.api.datasource.WorkloadClass;
+import com.performance.api.datasource.WorkloadPools;
+import com.performance.api.datasource.WorkloadRoutingDataSource.Target;
+import com.performance.api.derived.DerivedData;
+import com.performance.api.entity.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds the database with a large, skewed data set instead of the DataInitializer sample when the
+ * "synthetic" profile is active.
+ *
+ * Rows are written with batched JDBC inserts by parallel workers, one transaction per chunk. Each
+ * chunk draws from its own random stream derived from the seed, table and chunk number, so the
+ * data set is identical from run to run whatever the worker count or scheduling. Order item ids
+ * are derived from the order id ((order - 1) * maxItemsPerOrder + n) and therefore not contiguous.
+ * The derived columns (DerivedData) are filled in as rows are inserted, so nothing is backfilled.
+ */
+@Component
+@Profile("synthetic")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Lucas", "Sofia"};
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"};
+
+    // In decreasing popularity; the category of a product is itself Zipf-distributed
+    private static final String[] CATEGORIES = {
+            "Electronics", "Clothing", "Home", "Books", "Sports", "Beauty", "Toys", "Grocery", "Garden",
+            "Automotive", "Office", "Pets", "Music", "Health", "Jewelry"};
+
+    private static final String[] ADJECTIVES = {
+            "Compact", "Wireless", "Premium", "Classic", "Smart", "Portable", "Ergonomic", "Deluxe", "Eco", "Pro"};
+
+    private static final String[] NOUNS = {
+            "Speaker", "Jacket", "Lamp", "Novel", "Bottle", "Backpack", "Chair", "Watch", "Blender", "Headset"};
+
+    // Relative order volume per month from January: post-holiday dip, summer sales, November and December peaks
+    private static final double[] MONTH_WEIGHTS = {0.8, 0.7, 0.85, 0.9, 0.95, 1.0, 1.1, 1.0, 0.9, 1.0, 1.6, 1.9};
+
+    private static final double WEEKEND_WEIGHT = 1.25;
+
+    private static final double MAX_DAY_WEIGHT = 1.9 * WEEKEND_WEIGHT;
+
+    // Probability that an order has one more item, so the item count is geometric
+    private static final double NEXT_ITEM_PROBABILITY = 0.45;
+
+    private static final double CANCELLED_RATE = 0.03;
+
+    private static final long USERS_STREAM = 1;
+
+    private static final long PRODUCTS_STREAM = 2;
+
+    private static final long ORDERS_STREAM = 3;
+
+    private final DataSource dataSource;
+
+    private final SyntheticDataProperties properties;
+
+    public SyntheticDataGenerator(WorkloadPools pools, SyntheticDataProperties properties) {
+        this.dataSource = pools.get(Target.PRIMARY, WorkloadClass.BULK);
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (count("users") > 0) {
+            log.info("Database already has data, not generating the synthetic data set");
+            return;
+        }
+        long started = System.nanoTime();
+        // Unit prices of order items are the product prices, indexed by product id
+        long[] priceCents = new long[properties.getProducts() + 1];
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getWorkers(),
+                new CustomizableThreadFactory("synthetic-data-"));
+        try {
+            load(workers, "users", USERS_STREAM, properties.getUsers(), this::insertUsers);
+            load(workers, "products", PRODUCTS_STREAM, properties.getProducts(),
+                    (connection, first, last, random) -> insertProducts(connection, first, last, random, priceCents));
+            ZipfSampler products = new ZipfSampler(properties.getProducts(), properties.getProductSkew());
+            ZipfSampler users = new ZipfSampler(properties.getUsers(), properties.getUserSkew());
+            load(workers, "orders", ORDERS_STREAM, properties.getOrders(),
+                    (connection, first, last, random) -> insertOrders(connection, first, last, random, priceCents,
+                            products, users));
+        } finally {
+            workers.shutdownNow();
+        }
+        restartIdentity("users", properties.getUsers() + 1L);
+        restartIdentity("products", properties.getProducts() + 1L);
+        restartIdentity("orders", properties.getOrders() + 1L);
+        restartIdentity("order_items", (long) properties.getOrders() * properties.getMaxItemsPerOrder() + 1);
+        log.info("Synthetic data set (seed {}) generated in {} ms: {} users, {} products, {} orders, {} order items",
+                properties.getSeed(), (System.nanoTime() - started) / 1_000_000, count("users"), count("products"),
+                count("orders"), count("order_items"));
+    }
+
+    private void load(ExecutorService workers, String table, long stream, int rows, ChunkWriter writer)
+            throws Exception {
+        long started = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        long chunk = 0;
+        for (long first = 1; first <= rows; first += properties.getChunkSize(), chunk++) {
+            long from = first;
+            long to = Math.min(rows, first + properties.getChunkSize() - 1);
+            SplittableRandom random = new SplittableRandom(properties.getSeed() * 0x9E3779B97F4A7C15L
+                    + stream * 0xBF58476D1CE4E5B9L + chunk);
+            chunks.add(workers.submit(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.setAutoCommit(false);
+                    writer.write(connection, from, to, random);
+                    connection.commit();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : chunks) {
+            result.get();
+        }
+        log.info("Generated {} in {} ms", table, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void insertUsers(Connection connection, long first, long last, SplittableRandom random)
+            throws SQLException {
+        LocalDate from = properties.getOrderDateFrom().minusYears(1);
+        long days = ChronoUnit.DAYS.between(from, properties.getOrderDateTo());
+        try (Batch batch = new Batch(connection, "INSERT INTO users (id, username, email, first_name, last_name, "
+                + "created_at, updated_at, processed_digest, derived_from) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", null)) {
+            for (long id = first; id <= last; id++) {
+                LocalDateTime createdAt = from.plusDays(random.nextLong(days)).atTime(random.nextInt(24), random.nextInt(60));
+                String username = "user" + id;
+                PreparedStatement row = batch.statement();
+                row.setLong(1, id);
+                row.setString(2, username);
+                row.setString(3, "user" + id + "@example" + random.nextInt(10) + ".com");
+                row.setString(4, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                row.setString(5, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                row.setObject(6, createdAt);
+                row.setObject(7, createdAt);
+                row.setString(8, DerivedData.userDigest(username));
+                row.setString(9, DerivedData.userFingerprint(username));
+                batch.add();
+            }
+        }
+    }
+
+    private void insertProducts(Connection connection, long first, long last, SplittableRandom random,
+                                long[] priceCents) throws SQLException {
+        ZipfSampler categories = new ZipfSampler(CATEGORIES.length, 1.0);
+        LocalDateTime createdAt = properties.getOrderDateFrom().minusYears(1).atStartOfDay();
+        try (Batch batch = new Batch(connection, "INSERT INTO products (id, name, description, price, category, "
+                + "stock_quantity, created_at, updated_at, search_keywords, processed_digest, derived_from) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", null)) {
+            for (long id = first; id <= last; id++) {
+                String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                        + NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+                String category = CATEGORIES[categories.sample(random) - 1];
+                // Log-normal: most products cost tens of dollars, a few cost thousands
+                long cents = Math.max(99, Math.min(499_999, Math.round(Math.exp(3.0 + 1.1 * random.nextGaussian()) * 100)));
+                priceCents[(int) id] = cents;
+                String description = name + " in " + category;
+                BigDecimal price = BigDecimal.valueOf(cents, 2);
+                int stock = random.nextInt(501);
+                PreparedStatement row = batch.statement();
+                row.setLong(1, id);
+                row.setString(2, name);
+                row.setString(3, description);
+                row.setBigDecimal(4, price);
+                row.setString(5, category);
+                row.setInt(6, stock);
+                row.setObject(7, createdAt);
+                row.setObject(8, createdAt);
+                row.setString(9, DerivedData.searchKeywords(name, category, description, price, stock));
+                row.setString(10, DerivedData.productDigest(name));
+                row.setString(11, DerivedData.productFingerprint(name, category, description, price, stock));
+                batch.add();
+            }
+        }
+    }
+
+    private void insertOrders(Connection connection, long first, long last, SplittableRandom random, long[] priceCents,
+                              ZipfSampler products, ZipfSampler users) throws SQLException {
+        int maxItems = properties.getMaxItemsPerOrder();
+        int[] productIds = new int[maxItems];
+        int[] quantities = new int[maxItems];
+        try (Batch orders = new Batch(connection, "INSERT INTO orders (id, user_id, total_amount, status, order_date, "
+                + "created_at, updated_at, processed_digest, derived_from) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", null);
+             Batch items = new Batch(connection, "INSERT INTO order_items (id, order_id, product_id, quantity, "
+                     + "unit_price, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", orders)) {
+            for (long id = first; id <= last; id++) {
+                LocalDateTime orderDate = orderDate(random);
+                int itemCount = 1;
+                while (itemCount < maxItems && random.nextDouble() < NEXT_ITEM_PROBABILITY) {
+                    itemCount++;
+                }
+                long totalCents = 0;
+                for (int n = 0; n < itemCount; n++) {
+                    productIds[n] = products.sample(random);
+                    quantities[n] = random.nextDouble() < 0.8 ? 1 : 2 + random.nextInt(4);
+                    totalCents += priceCents[productIds[n]] * quantities[n];
+                }
+                PreparedStatement order = orders.statement();
+                order.setLong(1, id);
+                order.setLong(2, users.sample(random));
+                order.setBigDecimal(3, BigDecimal.valueOf(totalCents, 2));
+                order.setString(4, status(orderDate, random).name());
+                order.setObject(5, orderDate);
+                order.setObject(6, orderDate);
+                order.setObject(7, orderDate);
+                order.setString(8, DerivedData.orderDigest(id));
+                order.setString(9, DerivedData.orderFingerprint(id));
+                orders.add();
+                for (int n = 0; n < itemCount; n++) {
+                    PreparedStatement item = items.statement();
+                    item.setLong(1, (id - 1) * maxItems + n + 1);
+                    item.setLong(2, id);
+                    item.setLong(3, productIds[n]);
+                    item.setInt(4, quantities[n]);
+                    item.setBigDecimal(5, BigDecimal.valueOf(priceCents[productIds[n]], 2));
+                    item.setObject(6, orderDate);
+                    item.setObject(7, orderDate);
+                    items.add();
+                }
+            }
+        }
+    }
+
+    // A day in the range weighted by month and weekday, at a time skewed towards the evening
+    private LocalDateTime orderDate(SplittableRandom random) {
+        long days = ChronoUnit.DAYS.between(properties.getOrderDateFrom(), properties.getOrderDateTo());
+        while (true) {
+            LocalDate day = properties.getOrderDateFrom().plusDays(random.nextLong(days));
+            boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+            double weight = MONTH_WEIGHTS[day.getMonthValue() - 1] * (weekend ? WEEKEND_WEIGHT : 1.0);
+            if (random.nextDouble() * MAX_DAY_WEIGHT < weight) {
+                int hour = 8 + (int) (15 * Math.sqrt(random.nextDouble()));
+                return day.atTime(hour, random.nextInt(60), random.nextInt(60));
+            }
+        }
+    }
+
+    // Orders move through the lifecycle as they age, measured from the end of the range
+    private Order.OrderStatus status(LocalDateTime orderDate, SplittableRandom random) {
+        if (random.nextDouble() < CANCELLED_RATE) {
+            return Order.OrderStatus.CANCELLED;
+        }
+        long age = ChronoUnit.DAYS.between(orderDate.toLocalDate(), properties.getOrderDateTo());
+        if (age < 2) {
+            return Order.OrderStatus.PENDING;
+        }
+        if (age < 4) {
+            return Order.OrderStatus.CONFIRMED;
+        }
+        return age < 10 ? Order.OrderStatus.SHIPPED : Order.OrderStatus.DELIVERED;
+    }
+
+    private long count(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    // Rows were inserted with explicit ids; later inserts through JPA continue after them
+    private void restartIdentity(String table, long next) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+
+        void write(Connection connection, long firstId, long lastId, SplittableRandom random) throws SQLException;
+    }
+
+    // Prepared statement executed every batchSize rows and once more on close. Rows referencing another
+    // batch's rows name it as parent, which is then always executed first
+    private final class Batch implements AutoCloseable {
+
+        private final PreparedStatement statement;
+
+        private final Batch parent;
+
+        private int pending;
+
+        Batch(Connection connection, String sql, Batch parent) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+            this.parent = parent;
+        }
+
+        PreparedStatement statement() {
+            return statement;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.performance.api.synthetic;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+@ConfigurationProperties(prefix = "performance.synthetic")
+public class SyntheticDataProperties {
+
+    private long seed = 42;
+
+    private int users = 1_000_000;
+
+    private int products = 100_000;
+
+    private int orders = 1_000_000;
+
+    // Upper bound of items per order; the count per order is geometric, averaging about 1.8
+    private int maxItemsPerOrder = 8;
+
+    // Skew of product popularity in order items; around 1.0 the top 1% of products get roughly half the sales
+    private double productSkew = 1.0;
+
+    // Skew of orders per user; lower than the product skew, so most users have a handful of orders
+    private double userSkew = 0.7;
+
+    // Order dates fall in [orderDateFrom, orderDateTo), weighted by month and weekday
+    private LocalDate orderDateFrom = LocalDate.of(2024, 1, 1);
+
+    private LocalDate orderDateTo = LocalDate.of(2026, 1, 1);
+
+    // Parallel insert workers, each on its own connection from the primary bulk pool
+    private int workers = 4;
+
+    // Rows per JDBC batch; every chunk of chunkSize rows is one transaction
+    private int batchSize = 1_000;
+
+    private int chunkSize = 20_000;
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public int getProducts() {
+        return products;
+    }
+
+    public void setProducts(int products) {
+        this.products = products;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public void setOrders(int orders) {
+        this.orders = orders;
+    }
+
+    public int getMaxItemsPerOrder() {
+        return maxItemsPerOrder;
+    }
+
+    public void setMaxItemsPerOrder(int maxItemsPerOrder) {
+        this.maxItemsPerOrder = maxItemsPerOrder;
+    }
+
+    public double getProductSkew() {
+        return productSkew;
+    }
+
+    public void setProductSkew(double productSkew) {
+        this.productSkew = productSkew;
+    }
+
+    public double getUserSkew() {
+        return userSkew;
+    }
+
+    public void setUserSkew(double userSkew) {
+        this.userSkew = userSkew;
+    }
+
+    public LocalDate getOrderDateFrom() {
+        return orderDateFrom;
+    }
+
+    public void setOrderDateFrom(LocalDate orderDateFrom) {
+        this.orderDateFrom = orderDateFrom;
+    }
+
+    public LocalDate getOrderDateTo() {
+        return orderDateTo;
+    }
+
+    public void setOrderDateTo(LocalDate orderDateTo) {
+        this.orderDateTo = orderDateTo;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
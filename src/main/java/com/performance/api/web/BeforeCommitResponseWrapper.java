@@ -0,0 +1,135 @@
+package com.performance.api.web;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Runs a callback just before the response is committed, so filters can add headers that
+ * describe work done while the handler ran (statement counts, allocated bytes) without
+ * buffering the body. The container commits when its buffer fills, once a declared
+ * Content-Length has been written, on flush, or at the end.
+ */
+public class BeforeCommitResponseWrapper extends HttpServletResponseWrapper {
+
+    private final Runnable beforeCommit;
+
+    private boolean fired;
+
+    private long written;
+
+    private long contentLength = -1;
+
+    private ServletOutputStream outputStream;
+
+    public BeforeCommitResponseWrapper(HttpServletResponse response, Runnable beforeCommit) {
+        super(response);
+        this.beforeCommit = beforeCommit;
+    }
+
+    public void fireBeforeCommit() {
+        if (!fired) {
+            fired = true;
+            if (!isCommitted()) {
+                beforeCommit.run();
+            }
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            ServletOutputStream delegate = super.getOutputStream();
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    beforeWrite(1);
+                    delegate.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    beforeWrite(len);
+                    delegate.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    fireBeforeCommit();
+                    delegate.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    fireBeforeCommit();
+                    delegate.close();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return delegate.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    delegate.setWriteListener(writeListener);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        contentLength = len;
+        super.setContentLength(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        contentLength = len;
+        super.setContentLengthLong(len);
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        // Character output is small (plain text health checks); treat the writer as the commit point
+        fireBeforeCommit();
+        return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        fireBeforeCommit();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        fireBeforeCommit();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        fireBeforeCommit();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        fireBeforeCommit();
+        super.sendRedirect(location);
+    }
+
+    private void beforeWrite(int length) {
+        written += length;
+        if (written >= getBufferSize() || (contentLength >= 0 && written >= contentLength)) {
+            fireBeforeCommit();
+        }
+    }
+}
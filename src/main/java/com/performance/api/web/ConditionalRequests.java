@@ -0,0 +1,44 @@
+package com.performance.api.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET checks for controllers. The same data encoded as JSON, CBOR or Smile are
+ * different representations, so the strong ETag carries the wire format the client negotiates.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Sets ETag, Last-Modified and Vary on the response and returns true when the client's copy
+     * is current; the handler should then return null without loading anything.
+     */
+    public static boolean checkNotModified(WebRequest request, String tag, long lastModified) {
+        addVary(request, HttpHeaders.ACCEPT);
+        return request.checkNotModified(etag(tag, Representation.negotiate(request, false)), lastModified);
+    }
+
+    /**
+     * Variant for handlers that also negotiate the content coding (see {@link Representation#negotiate}).
+     */
+    public static boolean checkNotModified(WebRequest request, Representation representation, String tag,
+                                           long lastModified) {
+        addVary(request, HttpHeaders.ACCEPT);
+        addVary(request, HttpHeaders.ACCEPT_ENCODING);
+        return request.checkNotModified(etag(tag, representation), lastModified);
+    }
+
+    private static String etag(String tag, Representation representation) {
+        return "\"" + tag + representation.tagSuffix() + "\"";
+    }
+
+    private static void addVary(WebRequest request, String header) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, header);
+        }
+    }
+}
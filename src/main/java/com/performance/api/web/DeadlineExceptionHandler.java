@@ -0,0 +1,34 @@
+package com.performance.api.web;
+
+import com.performance.api.deadline.Deadline;
+import com.performance.api.deadline.DeadlineExceededException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers 504 for deadline failures that escape the handler, which DeadlineFilter's response
+ * wrapper never sees as a status: an abandoned call, or a statement cancelled at the deadline
+ * (a DataAccessException once the deadline has passed). Also runs on the async dispatch of
+ * CompletableFuture endpoints. DeadlineFilter counts the 504 in app.deadline.exceeded.
+ */
+@RestControllerAdvice
+public class DeadlineExceptionHandler {
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<Void> deadlineExceeded() {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+
+    // Rethrown when the deadline has not passed: a failure of its own, left to the default handling
+    @ExceptionHandler(DataAccessException.class)
+    public ResponseEntity<Void> dataAccessFailed(DataAccessException e) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null || !deadline.isExpired()) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+}
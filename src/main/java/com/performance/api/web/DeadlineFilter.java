@@ -0,0 +1,147 @@
+package com.performance.api.web;
+
+import com.performance.api.deadline.Deadline;
+import com.performance.api.deadline.DeadlineProperties;
+import com.performance.api.monitoring.RequestEndpoints;
+import com.performance.api.reactive.ReactiveOrderRoutes;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Turns the caller's X-Request-Timeout ("1500", "1500ms", "2s") into a {@link Deadline} for the
+ * request. Work still running for it when the deadline passes is stopped, and a request that
+ * fails after its deadline is answered with 504 instead of the handler's 5xx, counted in
+ * app.deadline.exceeded{endpoint}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final String DEADLINE_ATTRIBUTE = DeadlineFilter.class.getName() + ".deadline";
+
+    private final DeadlineProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public DeadlineFilter(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/")
+                // /api/v2 reads through R2DBC, which the JDBC statement guard does not see
+                || request.getRequestURI().startsWith(ReactiveOrderRoutes.PATH_PREFIX + "/");
+    }
+
+    // CompletableFuture endpoints finish on an async dispatch, under the deadline of the first one
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Deadline deadline = (Deadline) request.getAttribute(DEADLINE_ATTRIBUTE);
+        if (deadline == null) {
+            Duration budget;
+            try {
+                budget = budgetOf(request);
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + TIMEOUT_HEADER);
+                return;
+            }
+            if (budget == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            deadline = Deadline.after(budget);
+            request.setAttribute(DEADLINE_ATTRIBUTE, deadline);
+        }
+        Deadline previous = Deadline.bind(deadline);
+        try {
+            chain.doFilter(request, new DeadlineResponseWrapper(response, deadline));
+        } finally {
+            Deadline.restore(previous);
+            if (request.isAsyncStarted()) {
+                shortenAsyncTimeout(request.getAsyncContext(), deadline);
+            } else if (response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value() && deadline.isExpired()) {
+                meterRegistry.counter("app.deadline.exceeded", "endpoint", RequestEndpoints.of(request)).increment();
+            }
+        }
+    }
+
+    private Duration budgetOf(HttpServletRequest request) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header == null) {
+            return properties.getDefaultTimeout();
+        }
+        Duration budget = DurationStyle.detectAndParse(header.trim(), ChronoUnit.MILLIS);
+        if (budget.isNegative()) {
+            throw new IllegalArgumentException("Negative timeout: " + header);
+        }
+        Duration max = properties.getMaxTimeout();
+        return max != null && budget.compareTo(max) > 0 ? max : budget;
+    }
+
+    // Without it an async request would wait for its result up to the MVC async timeout, past the deadline
+    private static void shortenAsyncTimeout(AsyncContext asyncContext, Deadline deadline) {
+        long remaining = Math.max(1, deadline.remaining().toMillis());
+        if (asyncContext.getTimeout() <= 0 || asyncContext.getTimeout() > remaining) {
+            asyncContext.setTimeout(remaining);
+        }
+    }
+
+    /**
+     * Reports a failure after the deadline as 504: the handlers answer a cancelled query or an
+     * abandoned wait with their generic 500 (or 503 for admission and async timeouts).
+     */
+    private static final class DeadlineResponseWrapper extends HttpServletResponseWrapper {
+
+        private final Deadline deadline;
+
+        DeadlineResponseWrapper(HttpServletResponse response, Deadline deadline) {
+            super(response);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            super.setStatus(statusFor(sc));
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            super.sendError(statusFor(sc));
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            int status = statusFor(sc);
+            super.sendError(status, status == sc ? msg : deadline.exceeded().getMessage());
+        }
+
+        private int statusFor(int sc) {
+            return sc >= 500 && deadline.isExpired() ? HttpStatus.GATEWAY_TIMEOUT.value() : sc;
+        }
+    }
+}
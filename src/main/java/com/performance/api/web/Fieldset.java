@@ -0,0 +1,36 @@
+package com.performance.api.web;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The attributes requested with ?fields= (a sparse fieldset). A handler parameter of this type is
+ * filled by FieldsetArgumentResolver; the handler passes its projection to {@link #select} so a
+ * field the repository cannot project is answered with 400 by FieldsetExceptionHandler.
+ */
+public record Fieldset(Set<String> names) {
+
+    public static final String PARAMETER = "fields";
+
+    // In the requested order, which is the order of the columns in each row
+    public Fieldset {
+        names = Collections.unmodifiableSet(new LinkedHashSet<>(names));
+    }
+
+    /**
+     * Runs {@code projection} with the requested names. IllegalArgumentException (an unknown or
+     * association field, or a bad argument checked alongside) is rethrown as InvalidFieldsetException;
+     * Spring Data wraps it in InvalidDataAccessApiUsageException when it comes from a repository.
+     */
+    public <T> T select(Function<Set<String>, T> projection) {
+        try {
+            return projection.apply(names);
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            throw new InvalidFieldsetException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.performance.api.web;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Resolves Fieldset handler parameters from ?fields=, comma separated or repeated, as a
+ * {@code @RequestParam Set<String>} would. Handlers still map on {@code params = "fields"}.
+ */
+@Component
+public class FieldsetArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == Fieldset.class;
+    }
+
+    @Override
+    public Fieldset resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                    NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Set<String> names = new LinkedHashSet<>();
+        String[] values = webRequest.getParameterValues(Fieldset.PARAMETER);
+        if (values != null) {
+            for (String value : values) {
+                for (String name : StringUtils.commaDelimitedListToStringArray(value)) {
+                    if (!name.isBlank()) {
+                        names.add(name.trim());
+                    }
+                }
+            }
+        }
+        return new Fieldset(names);
+    }
+}
@@ -0,0 +1,17 @@
+package com.performance.api.web;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * A rejected sparse fieldset is the client's mistake: 400 with no body, for every controller.
+ */
+@RestControllerAdvice
+public class FieldsetExceptionHandler {
+
+    @ExceptionHandler(InvalidFieldsetException.class)
+    public ResponseEntity<Void> invalidFieldset() {
+        return ResponseEntity.badRequest().build();
+    }
+}
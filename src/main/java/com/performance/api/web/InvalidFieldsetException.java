@@ -0,0 +1,11 @@
+package com.performance.api.web;
+
+/**
+ * A sparse fieldset projection was rejected; see Fieldset.select.
+ */
+public class InvalidFieldsetException extends RuntimeException {
+
+    public InvalidFieldsetException(RuntimeException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,34 @@
+package com.performance.api.web;
+
+import com.performance.api.compression.TextColumnStreams;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * text/plain request and response bodies streamed as UTF-8, for the text column endpoints.
+ */
+public final class PlainTextBodies {
+
+    public static final String UTF8 = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+
+    private PlainTextBodies() {
+    }
+
+    // Bodies are stored as received, so only UTF-8 (stated or defaulted) is accepted. The Content-Type
+    // header is read, as the request character encoding is forced to UTF-8 by the encoding filter
+    public static boolean isUtf8(HttpServletRequest request) {
+        Charset charset = MediaType.parseMediaType(request.getContentType()).getCharset();
+        return charset == null || StandardCharsets.UTF_8.equals(charset);
+    }
+
+    public static TextColumnStreams.Target to(HttpServletResponse response) {
+        return () -> {
+            response.setContentType(UTF8);
+            return response.getOutputStream();
+        };
+    }
+}
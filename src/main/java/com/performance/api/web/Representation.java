@@ -0,0 +1,88 @@
+package com.performance.api.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The wire format (JSON, Smile or CBOR) and content coding a client gets for an entity. Each
+ * combination is a separate representation with its own bytes and its own strong ETag.
+ */
+public record Representation(MediaType mediaType, boolean gzip) {
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    // Same order as the message converters, so ties resolve to the same format
+    private static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON, SMILE, MediaType.APPLICATION_CBOR);
+
+    /**
+     * @param allowGzip whether the caller can serve a gzip-coded body; otherwise identity is assumed
+     */
+    public static Representation negotiate(WebRequest request, boolean allowGzip) {
+        return new Representation(negotiateMediaType(request.getHeader(HttpHeaders.ACCEPT)),
+                allowGzip && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+    }
+
+    public String tagSuffix() {
+        String format = MediaType.APPLICATION_JSON.equals(mediaType) ? ""
+                : mediaType.equals(SMILE) ? "+smile" : "+" + mediaType.getSubtype();
+        return gzip ? format + "+gzip" : format;
+    }
+
+    // Same outcome as MVC content negotiation: highest quality, then most specific, then first listed wins
+    private static MediaType negotiateMediaType(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType selected = MediaType.APPLICATION_JSON;
+        double[] best = score(accepted, selected);
+        for (MediaType produced : PRODUCIBLE.subList(1, PRODUCIBLE.size())) {
+            double[] candidate = score(accepted, produced);
+            if (Arrays.compare(candidate, best) > 0) {
+                best = candidate;
+                selected = produced;
+            }
+        }
+        return selected;
+    }
+
+    // {quality, specificity, -position} of the best Accept entry that matches the produced type
+    private static double[] score(List<MediaType> accepted, MediaType produced) {
+        double[] best = {0, 0, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < accepted.size(); i++) {
+            MediaType mediaType = accepted.get(i);
+            if (!mediaType.includes(produced)) {
+                continue;
+            }
+            int specificity = mediaType.isWildcardType() ? 0 : mediaType.isWildcardSubtype() ? 1 : 2;
+            double[] candidate = {mediaType.getQualityValue(), specificity, -i};
+            if (Arrays.compare(candidate, best) > 0) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package com.performance.api.web;
+
+import com.performance.api.monitoring.RequestEndpoints;
+import com.performance.api.monitoring.ResourceUsage;
+import com.performance.api.monitoring.ResourceUsageRecorder;
+import com.performance.api.reactive.ReactiveOrderRoutes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Accounts allocated bytes and CPU time per API request, optionally echoing them in
+ * X-Allocated-Bytes / X-CPU-Time-Micros response headers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class ResourceUsageFilter extends OncePerRequestFilter {
+
+    public static final String ALLOCATED_BYTES_HEADER = "X-Allocated-Bytes";
+    public static final String CPU_TIME_HEADER = "X-CPU-Time-Micros";
+
+    private static final String USAGE_ATTRIBUTE = ResourceUsageFilter.class.getName() + ".usage";
+
+    private final ResourceUsageRecorder recorder;
+
+    private final boolean responseHeaders;
+
+    public ResourceUsageFilter(ResourceUsageRecorder recorder,
+                               @Value("${performance.monitoring.resource-usage-headers:false}") boolean responseHeaders) {
+        this.recorder = recorder;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !ResourceUsage.isSupported() || !request.getRequestURI().startsWith("/api/")
+                // /api/v2 responses are produced on whichever thread the client's demand arrives on
+                || request.getRequestURI().startsWith(ReactiveOrderRoutes.PATH_PREFIX + "/");
+    }
+
+    // CompletableFuture endpoints finish on an async dispatch; the usage object is carried over
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ResourceUsage existing = (ResourceUsage) request.getAttribute(USAGE_ATTRIBUTE);
+        ResourceUsage usage = existing != null ? existing : new ResourceUsage();
+        request.setAttribute(USAGE_ATTRIBUTE, usage);
+        ResourceUsage previous = ResourceUsage.bind(usage);
+        ResourceUsage.Snapshot start = ResourceUsage.snapshot();
+        HttpServletResponse target = response;
+        BeforeCommitResponseWrapper wrapper = null;
+        if (responseHeaders) {
+            // Covers the request thread up to the commit point plus executor tasks finished by then
+            wrapper = new BeforeCommitResponseWrapper(response, () -> {
+                ResourceUsage.Snapshot sofar = start.until(ResourceUsage.snapshot());
+                response.setHeader(ALLOCATED_BYTES_HEADER, String.valueOf(usage.allocatedBytes() + sofar.allocatedBytes()));
+                response.setHeader(CPU_TIME_HEADER, String.valueOf((usage.cpuNanos() + sofar.cpuNanos()) / 1000));
+            });
+            target = wrapper;
+        }
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            if (wrapper != null) {
+                wrapper.fireBeforeCommit();
+            }
+            usage.setEndpoint(RequestEndpoints.of(request));
+            recorder.contribute(usage, start.until(ResourceUsage.snapshot()), "request");
+            if (!request.isAsyncStarted() && usage.release()) {
+                recorder.complete(usage);
+            }
+            ResourceUsage.restore(previous);
+        }
+    }
+}
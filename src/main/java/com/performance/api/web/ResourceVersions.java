@@ -0,0 +1,56 @@
+package com.performance.api.web;
+
+import com.performance.api.event.EntityChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version counters for collection representations, used as validators for conditional GETs on
+ * list endpoints. A counter moves after every committed write that can change what its
+ * collection serializes; the boot time is part of the tag so counters restarting at zero never
+ * match a tag handed out by a previous run.
+ */
+@Component
+public class ResourceVersions {
+
+    private volatile String epoch = Long.toHexString(System.currentTimeMillis());
+
+    private volatile long startedAt = System.currentTimeMillis();
+
+    private final Map<Class<?>, Version> versions = new ConcurrentHashMap<>();
+
+    public Version current(Class<?> entityType) {
+        return versions.computeIfAbsent(entityType, type -> new Version(epoch, 0, startedAt));
+    }
+
+    // Startup data is written by a CommandLineRunner without events, while requests are already served
+    @EventListener(ApplicationReadyEvent.class)
+    public void reset() {
+        startedAt = System.currentTimeMillis();
+        epoch = Long.toHexString(startedAt);
+        versions.clear();
+    }
+
+    // After commit, so a tag is never handed out for data a reader cannot see yet
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        for (Class<?> collection : event.affectedTypes()) {
+            long now = System.currentTimeMillis();
+            versions.compute(collection, (type, version) -> version == null
+                    ? new Version(epoch, 1, now)
+                    : new Version(epoch, version.counter() + 1, now));
+        }
+    }
+
+    public record Version(String epoch, long counter, long lastModified) {
+
+        public String tag(String collection) {
+            return collection + "-" + epoch + "-" + counter;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.performance.api.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.performance.api.event.EntityChangedEvent;
+import com.performance.api.footprint.FootprintRegistry;
+import com.performance.api.singleflight.SingleFlightGroup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded response bodies per (entity type, id, representation), so a hot read is a map lookup
+ * plus a copy to the servlet output stream. Least recently used entries are dropped once the
+ * cached bytes exceed {@code performance.response-cache.max-size}.
+ *
+ * Entries are evicted after a write commits. A reader that loaded the entity before the write
+ * could still store the old bytes afterwards, so every put carries the generation it read at
+ * and is discarded if an invalidation happened in between.
+ *
+ * Concurrent misses for the same representation and tag (the version) encode the body once, and
+ * one that finds the bytes already stored by another uses them.
+ */
+@Component
+public class ResponseByteCache {
+
+    private final boolean enabled;
+
+    private final long maxBytes;
+
+    private final List<AbstractJackson2HttpMessageConverter> converters;
+
+    private final SingleFlightGroup singleFlight;
+
+    private final Map<Key, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private long cachedBytes;
+
+    public ResponseByteCache(@Value("${performance.response-cache.enabled:true}") boolean enabled,
+                             @Value("${performance.response-cache.max-size:64MB}") DataSize maxSize,
+                             List<AbstractJackson2HttpMessageConverter> converters,
+                             SingleFlightGroup singleFlight, FootprintRegistry footprints, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBytes = maxSize.toBytes();
+        this.converters = converters;
+        this.singleFlight = singleFlight;
+        this.hits = meterRegistry.counter("app.response.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("app.response.cache.requests", "result", "miss");
+        Gauge.builder("app.response.cache.size", this, ResponseByteCache::cachedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        footprints.register("ResponseByteCache.entries", FootprintRegistry.Kind.CACHE, this::cachedResponses);
+    }
+
+    public CachedResponse get(Class<?> type, Object id, Representation representation) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse cached;
+        synchronized (this) {
+            cached = entries.get(new Key(type, id, representation));
+        }
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    // Read before loading the entity and pass to put()
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Encodes {@code body} for the representation and caches it unless an invalidation happened
+     * since {@code readGeneration}. The encoded response is returned either way.
+     */
+    public CachedResponse put(Class<?> type, Object id, Representation representation, Object body,
+                              String tag, long lastModified, long readGeneration) throws IOException {
+        Key key = new Key(type, id, representation);
+        CachedResponse current = current(key, tag);
+        if (current != null) {
+            return current;
+        }
+        byte[] encoded = singleFlight.execute("ResponseByteCache.encode", null, new Encoding(key, tag),
+                () -> encode(body, representation));
+        CachedResponse response = new CachedResponse(encoded, representation, tag, lastModified);
+        if (!enabled) {
+            return response;
+        }
+        synchronized (this) {
+            if (generation.get() == readGeneration && response.body().length <= maxBytes) {
+                CachedResponse previous = entries.put(key, response);
+                cachedBytes += response.body().length - (previous != null ? previous.body().length : 0);
+                trim();
+            }
+        }
+        return response;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        synchronized (this) {
+            generation.incrementAndGet();
+            // Other types embed order items (products) or are embedded by them, so their writes flush everything
+            Iterator<Map.Entry<Key, CachedResponse>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, CachedResponse> entry = iterator.next();
+                Key key = entry.getKey();
+                if (key.type() != event.entityType() || key.id().equals(event.id())) {
+                    cachedBytes -= entry.getValue().body().length;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    // Startup data is written by a CommandLineRunner without events, while requests are already served
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized List<CachedResponse> cachedResponses() {
+        return new ArrayList<>(entries.values());
+    }
+
+    // Stored by a caller that missed at the same time and finished first
+    private synchronized CachedResponse current(Key key, String tag) {
+        CachedResponse cached = entries.get(key);
+        return cached != null && cached.tag().equals(tag) ? cached : null;
+    }
+
+    private void trim() {
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().body().length;
+            eldest.remove();
+        }
+    }
+
+    private byte[] encode(Object body, Representation representation) throws IOException {
+        ObjectMapper mapper = mapperFor(body.getClass(), representation.mediaType());
+        if (!representation.gzip()) {
+            return mapper.writeValueAsBytes(body);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private ObjectMapper mapperFor(Class<?> type, MediaType mediaType) {
+        for (AbstractJackson2HttpMessageConverter converter : converters) {
+            if (converter.canWrite(type, mediaType)) {
+                return converter.getObjectMapper();
+            }
+        }
+        throw new IllegalStateException("No Jackson converter for " + mediaType);
+    }
+
+    private record Key(Class<?> type, Object id, Representation representation) {
+    }
+
+    private record Encoding(Key key, String tag) {
+    }
+
+    /**
+     * One encoded representation; {@code tag} and {@code lastModified} are its validators.
+     */
+    public record CachedResponse(byte[] body, Representation representation, String tag, long lastModified) {
+
+        public void writeTo(HttpServletResponse response) throws IOException {
+            response.setContentType(representation.mediaType().toString());
+            if (representation.gzip()) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.performance.api.web;
+
+import com.performance.api.monitoring.RequestEndpoints;
+import com.performance.api.monitoring.SqlStatementScope;
+import com.performance.api.monitoring.SqlStatementStatistics;
+import com.performance.api.reactive.ReactiveOrderRoutes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements each API request issues and reports them in the
+ * X-SQL-Statement-Count response header and the sqlstatements actuator endpoint.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-SQL-Statement-Count";
+
+    public static final String BUDGET_EXCEEDED_HEADER = "X-SQL-Budget-Exceeded";
+
+    private final SqlStatementStatistics statistics;
+
+    public SqlStatementCountingFilter(SqlStatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/")
+                // /api/v2 reads through R2DBC, which the Hibernate statement inspector does not see
+                || request.getRequestURI().startsWith(ReactiveOrderRoutes.PATH_PREFIX + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            // Statements issued while serializing (lazy loading) after commit are only in the endpoint stats
+            BeforeCommitResponseWrapper wrapper = new BeforeCommitResponseWrapper(response, () -> {
+                response.setHeader(COUNT_HEADER, String.valueOf(scope.count()));
+                if (statistics.exceedsBudget(RequestEndpoints.of(request), scope.count())) {
+                    response.setHeader(BUDGET_EXCEEDED_HEADER, "true");
+                }
+            });
+            try {
+                chain.doFilter(request, wrapper);
+            } finally {
+                wrapper.fireBeforeCommit();
+                if (!request.isAsyncStarted()) {
+                    statistics.record(RequestEndpoints.of(request), scope);
+                }
+            }
+        }
+    }
+}
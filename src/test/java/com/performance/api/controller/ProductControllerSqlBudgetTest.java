@@ -0,0 +1,48 @@
+package com.performance.api.controller;
+
+import com.performance.api.monitoring.SqlStatementBudget;
+import com.performance.api.repository.ProductRepository;
+import com.performance.api.web.SqlStatementCountingFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerSqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.findAll().get(0).getId();
+    }
+
+    @Test
+    void getProductByIdIssuesAtMostTwoStatements() throws Exception {
+        SqlStatementBudget.assertAtMost(2, () -> mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getProductByIdReportsItsStatementCount() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        SqlStatementBudget.assertAtMost(2, result.getResponse().getHeader(SqlStatementCountingFilter.COUNT_HEADER));
+    }
+}
@@ -0,0 +1,51 @@
+package com.performance.api.controller;
+
+import com.performance.api.monitoring.SqlStatementBudget;
+import com.performance.api.repository.UserRepository;
+import com.performance.api.web.SqlStatementCountingFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerSqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        // The seeded user with one order of two items
+        userId = userRepository.findAll().get(0).getId();
+    }
+
+    @Test
+    void getUserByIdIssuesAtMostFourStatements() throws Exception {
+        SqlStatementBudget.assertAtMost(4, () -> mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getUserByIdStaysWithinItsConfiguredBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SqlStatementCountingFilter.BUDGET_EXCEEDED_HEADER))
+                .andReturn();
+
+        SqlStatementBudget.assertAtMost(4, result.getResponse().getHeader(SqlStatementCountingFilter.COUNT_HEADER));
+    }
+}
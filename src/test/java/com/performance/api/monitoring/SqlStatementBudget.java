@@ -0,0 +1,52 @@
+package com.performance.api.monitoring;
+
+import com.performance.api.web.SqlStatementCountingFilter;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Helper for integration tests that pin the number of SQL statements an endpoint may issue.
+ *
+ * <pre>
+ * SqlStatementBudget.assertAtMost(2, () -> mockMvc.perform(get("/api/products/{id}", id)));
+ * SqlStatementBudget.assertAtMost(2, response.getHeaders().getFirst(SqlStatementCountingFilter.COUNT_HEADER));
+ * </pre>
+ *
+ * The first form counts statements on the calling thread (MockMvc, from @AutoConfigureMockMvc,
+ * runs the request there); the second checks the header written by the request filter when going
+ * over real HTTP.
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Callable<T> work) throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            T result = work.call();
+            if (scope.count() > maxStatements) {
+                throw new AssertionError(describe(maxStatements, scope.count(), scope.statements()));
+            }
+            return result;
+        }
+    }
+
+    public static void assertAtMost(int maxStatements, String countHeader) {
+        if (countHeader == null) {
+            throw new AssertionError("Response has no " + SqlStatementCountingFilter.COUNT_HEADER + " header");
+        }
+        int count = Integer.parseInt(countHeader.trim());
+        if (count > maxStatements) {
+            throw new AssertionError("Expected at most " + maxStatements + " SQL statements but the endpoint issued " + count);
+        }
+    }
+
+    private static String describe(int maxStatements, int count, Map<String, Integer> statements) {
+        StringBuilder message = new StringBuilder()
+                .append("Expected at most ").append(maxStatements)
+                .append(" SQL statements but ").append(count).append(" were executed:");
+        statements.forEach((sql, times) -> message.append("\n  ").append(times).append("x ").append(sql));
+        return message.toString();
+    }
+}
@@ -0,0 +1,158 @@
+package com.performance.api.singleflight;
+
+import com.performance.api.entity.Order;
+import com.performance.api.entity.Product;
+import com.performance.api.event.EntityChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightGroupTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SingleFlightGroup group = new SingleFlightGroup(true, registry);
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> group.execute("read", Product.class, 1L, () -> {
+                executions.incrementAndGet();
+                release.await();
+                return "result";
+            })));
+        }
+        awaitUntil(() -> count("read", "coalesced") == CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(count("read", "executed")).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void exceptionReachesEveryCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> group.execute("read", Product.class, 1L, () -> {
+                release.await();
+                throw new IllegalStateException("read failed");
+            })));
+        }
+        awaitUntil(() -> count("read", "coalesced") == CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("read failed");
+        }
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void callerAfterWriteStartsNewCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        Future<String> before = executor.submit(() -> group.execute("read", Product.class, 1L, () -> {
+            executions.incrementAndGet();
+            release.await();
+            return "before";
+        }));
+        awaitUntil(() -> inFlight() == 1);
+
+        group.onEntityChanged(EntityChangedEvent.updated(Product.class, 1L));
+        assertThat(inFlight()).isZero();
+
+        String after = group.execute("read", Product.class, 1L, () -> {
+            executions.incrementAndGet();
+            return "after";
+        });
+        release.countDown();
+
+        assertThat(after).isEqualTo("after");
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("before");
+        assertThat(executions).hasValue(2);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void writeKeepsCallsOfUnaffectedTypes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> orders = executor.submit(() -> group.execute("orders", Order.class, 1L, () -> {
+            release.await();
+            return "orders";
+        }));
+        Future<String> encoding = executor.submit(() -> group.execute("encode", null, 1L, () -> {
+            release.await();
+            return "encoding";
+        }));
+        awaitUntil(() -> inFlight() == 2);
+
+        // Product writes don't change orders; version-keyed calls are never dropped
+        group.onEntityChanged(EntityChangedEvent.updated(Product.class, 1L));
+        assertThat(inFlight()).isEqualTo(2);
+
+        release.countDown();
+        assertThat(orders.get(5, TimeUnit.SECONDS)).isEqualTo("orders");
+        assertThat(encoding.get(5, TimeUnit.SECONDS)).isEqualTo("encoding");
+        assertThat(inFlight()).isZero();
+    }
+
+    private double count(String name, String result) {
+        return registry.counter("app.singleflight.calls", "name", name, "result", result).count();
+    }
+
+    private double inFlight() {
+        return registry.get("app.singleflight.in.flight").gauge().value();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition within 5s").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.performance.api.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DeadlineExceptionHandlerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void expiredSparseFieldsetRequestAnswers504() throws Exception {
+        double before = exceeded();
+
+        mockMvc.perform(get("/api/products").param("fields", "name").header(DeadlineFilter.TIMEOUT_HEADER, "0"))
+                .andExpect(status().isGatewayTimeout());
+
+        assertThat(exceeded()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void expiredAsyncRequestAnswers504OnDispatch() throws Exception {
+        double before = exceeded();
+
+        MvcResult result = mockMvc.perform(get("/api/products/async").header(DeadlineFilter.TIMEOUT_HEADER, "0"))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isGatewayTimeout());
+        } else {
+            assertThat(result.getResponse().getStatus()).isEqualTo(504);
+        }
+
+        assertThat(exceeded()).isEqualTo(before + 1);
+    }
+
+    private double exceeded() {
+        return meterRegistry.find("app.deadline.exceeded").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}